@@ -0,0 +1,81 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.cache.SearchCountCache;
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.service.CategoryService;
+import com.example.productservice.service.MongoConcurrencyLimiter;
+import com.example.productservice.service.MongoReadRouting;
+import com.example.productservice.service.ProductService;
+import com.example.productservice.service.ReadCoalescer;
+import com.example.productservice.service.SearchMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-process part of {@code addProduct}: category lookup, search term extraction and the
+ * required-attribute check. Persistence is stubbed out so only our own code is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddProductBenchmark {
+
+    @Param({"0", "3", "8"})
+    public int requiredAttributes;
+
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        Category category = SyntheticCatalog.category("skateboards", requiredAttributes);
+        CategoryService categoryService = new CategoryService(null, null, null) {
+            @Override
+            public Category getCategoryByName(String categoryName) {
+                return category;
+            }
+        };
+        ProductRepository productRepository = (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        return args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        productService = new ProductService(categoryService, productRepository, null,
+                new SearchCountCache(Duration.ofSeconds(30), 10_000, 1_000), null, null,
+                new MongoConcurrencyLimiter(new SimpleMeterRegistry(), 100, Duration.ofMillis(100)),
+                new MongoReadRouting("primary", "primary", Duration.ZERO),
+                new SearchMetrics(new SimpleMeterRegistry()), new ReadCoalescer(new SimpleMeterRegistry(), Duration.ofSeconds(5)),
+                new ProductCache(new SimpleMeterRegistry(), false, DataSize.ofMegabytes(64), Duration.ofMinutes(10)), event -> {
+        });
+        product = new SyntheticCatalog(42).product(System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public String addProduct() {
+        return productService.addProduct(product, "Skateboards");
+    }
+}
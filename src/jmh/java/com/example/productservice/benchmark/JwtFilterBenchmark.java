@@ -0,0 +1,97 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.config.RequestValidationFilter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link RequestValidationFilter} per request, with and without an access token cookie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+    // Same secret the filter verifies with, tokens are normally issued by the user service
+    private static final String SECRET = "bfc80827f07c171a3e1f0661a1abfd52ab1fec954283772e19c1a673efa58e41";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private RequestValidationFilter filter;
+    private String token;
+    // No exp claim, so the filter never caches it and verifies on every request
+    private String uncachedToken;
+
+    @Setup
+    public void setUp() {
+        filter = new RequestValidationFilter(new SimpleMeterRegistry(), 10_000);
+        token = Jwts.builder()
+                .subject("65c0f1e2a1b2c3d4e5f60718")
+                .claim("authorities", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + Duration.ofDays(1).toMillis()))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        uncachedToken = Jwts.builder()
+                .subject("65c0f1e2a1b2c3d4e5f60718")
+                .claim("authorities", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws ServletException, IOException {
+        // A fresh request each time, OncePerRequestFilter marks the ones it has seen
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/search");
+        request.setCookies(new Cookie("accessToken", token));
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object verifiedRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/search");
+        request.setCookies(new Cookie("accessToken", uncachedToken));
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/search");
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.service.ProductSearchQueries;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request parameters to rendered aggregation pipeline, i.e. everything
+ * {@code searchProducts} does before the driver is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchCriteriaBenchmark {
+
+    @Param({"unfiltered", "category", "full"})
+    public String scenario;
+
+    private String keyword;
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+    private String boardSize;
+    private String brand;
+
+    @Setup
+    public void setUp() {
+        category = "";
+        boardSize = "";
+        brand = "";
+        switch (scenario) {
+            case "category" -> category = "skateboards";
+            case "full" -> {
+                keyword = "street ska* deck";
+                category = "skateboards, longboards ,skateboards";
+                minPrice = 20.0;
+                maxPrice = 250.0;
+                boardSize = "8.0,8.25";
+                brand = "Element,Globe";
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Document> buildPipeline() {
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, boardSize, brand);
+        List<AggregationOperation> operations = new ArrayList<>(ProductSearchQueries.matchOperations(filter));
+        operations.add(Aggregation.sort(ProductSearchQueries.withTieBreaker(Sort.by(Sort.Direction.ASC, "price"))));
+        operations.add(Aggregation.skip(40L));
+        operations.add(Aggregation.limit(20));
+        return Aggregation.newAggregation(operations).toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.cache.SearchCountCache;
+import com.example.productservice.cache.SearchFacetCache;
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchSource;
+import com.example.productservice.entity.Product;
+import com.example.productservice.service.HotListingService;
+import com.example.productservice.service.MongoConcurrencyLimiter;
+import com.example.productservice.service.MongoReadRouting;
+import com.example.productservice.service.ProductProjection;
+import com.example.productservice.service.ProductService;
+import com.example.productservice.service.ReadCoalescer;
+import com.example.productservice.service.SearchFacetService;
+import com.example.productservice.service.SearchMetrics;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full search path through {@link ProductService}, the Spring Data mapping layer and the Mongo
+ * driver against an in-memory wire-protocol server loaded with a synthetic catalog.
+ * The stand-in has no query planner, so index choices still need checking on a real
+ * server through {@code /api/products/search/explain}. It also does not support
+ * {@code $text}, so keyword scenarios use prefix terms only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchEndToEndBenchmark {
+    // A standalone server has no secondaries to route to
+    private static final MongoReadRouting PRIMARY_ONLY = new MongoReadRouting("primary", "primary", Duration.ZERO);
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private MongoServer server;
+    private MongoClient client;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "product-benchmark");
+        List<Product> products = new SyntheticCatalog(42).products(catalogSize);
+        for (int from = 0; from < products.size(); from += 1_000) {
+            mongoTemplate.insert(products.subList(from, Math.min(from + 1_000, products.size())), Product.class);
+        }
+        // Zero TTL so every page also pays for its count, as the first page of a new search does
+        MongoConcurrencyLimiter limiter = new MongoConcurrencyLimiter(new SimpleMeterRegistry(), 100, Duration.ofSeconds(1));
+        ReadCoalescer readCoalescer = new ReadCoalescer(new SimpleMeterRegistry(), Duration.ofSeconds(5));
+        HotListingService hotListings = new HotListingService(mongoTemplate, limiter, readCoalescer, new SimpleMeterRegistry(),
+                List.of("price", "name"), 60, 200, Duration.ofMinutes(10));
+        productService = new ProductService(null, null, mongoTemplate,
+                new SearchCountCache(Duration.ZERO, 10_000, 1_000), facetService(mongoTemplate, limiter), hotListings, limiter, PRIMARY_ONLY,
+                new SearchMetrics(new SimpleMeterRegistry()), readCoalescer,
+                new ProductCache(new SimpleMeterRegistry(), false, DataSize.ofMegabytes(64), Duration.ofMinutes(10)), event -> {
+        });
+    }
+
+    // Uncached as well, every call runs the $facet aggregation
+    private static SearchFacetService facetService(MongoTemplate mongoTemplate, MongoConcurrencyLimiter limiter) {
+        return new SearchFacetService(mongoTemplate, new SearchFacetCache(Duration.ZERO, 5_000), limiter, PRIMARY_ONLY,
+                List.of(0.0, 25.0, 50.0, 100.0, 200.0, 500.0), 50);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Page<Product> categoryByPrice() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "skateboards", 20.0, 250.0, "", "");
+        return productService.searchProducts(filter, "price", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.SUMMARY, false,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "price")));
+    }
+
+    // Homepage listing: the same search served live and from the hot listing snapshot
+    @Benchmark
+    public Page<Product> categoryListingLive() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "skateboards", null, null, "", "");
+        return productService.searchProducts(filter, "price", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.SUMMARY, false,
+                PageRequest.of(1, 20, Sort.by(Sort.Direction.ASC, "price")));
+    }
+
+    @Benchmark
+    public Page<Product> categoryListingSnapshot() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "skateboards", null, null, "", "");
+        return productService.searchProducts(filter, "price", "asc", CountMode.EXACT, SearchSource.SNAPSHOT, ProductProjection.SUMMARY, false,
+                PageRequest.of(1, 20, Sort.by(Sort.Direction.ASC, "price")));
+    }
+
+    @Benchmark
+    public Page<Product> categoryWithFacets() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "skateboards", null, null, "", "Element");
+        return productService.searchProducts(filter, "price", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.SUMMARY, true,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "price")));
+    }
+
+    @Benchmark
+    public Page<Product> prefixKeyword() {
+        ProductSearchFilter filter = ProductSearchFilter.of("cru*", "", null, null, "", "Globe,Element");
+        return productService.searchProducts(filter, "name", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.SUMMARY, false,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "name")));
+    }
+
+    @Benchmark
+    public Page<Product> unfilteredDeepPage() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "", null, null, "", "");
+        return productService.searchProducts(filter, "createdAt", "desc", CountMode.ESTIMATED, SearchSource.LIVE, ProductProjection.SUMMARY, false,
+                PageRequest.of(200, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+    }
+
+    @Benchmark
+    public CursorPage<Product> unfilteredCursorPage() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "", null, null, "", "");
+        return productService.searchProductsAfter(filter, "createdAt", "desc", ProductProjection.SUMMARY, "", 20);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.service.SearchTokenizer;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic product generator for the benchmarks. The same seed always yields
+ * the same catalog, so runs before and after a change see identical data.
+ */
+public final class SyntheticCatalog {
+    public static final List<String> CATEGORIES = List.of("skateboards", "longboards", "surfboards", "snowboards",
+            "wakeboards", "helmets", "wheels", "bearings", "trucks", "apparel");
+    public static final List<String> BRANDS = List.of("Element", "Santa Cruz", "Globe", "Landyachtz", "Burton",
+            "Arbor", "Sector 9", "Powell Peralta", "Bones", "Independent", "Thrasher", "Vans");
+    public static final List<String> BOARD_SIZES = List.of("7.75", "8.0", "8.25", "8.5", "9.0", "38", "42");
+    private static final List<String> ADJECTIVES = List.of("Classic", "Pro", "Street", "Cruiser", "Carbon", "Bamboo",
+            "Retro", "Team", "Signature", "Lite");
+    private static final List<String> NOUNS = List.of("Deck", "Complete", "Board", "Setup", "Wheelset", "Kit",
+            "Edition", "Series");
+    private static final List<String> TAGS = List.of("beginner", "street", "park", "downhill", "freestyle",
+            "cruising", "vert", "sale", "new", "limited");
+    private static final List<String> ATTRIBUTES = List.of("material", "color", "weight", "concave", "wheelbase",
+            "durometer", "shape", "grip");
+
+    private final Random random;
+
+    public SyntheticCatalog(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            products.add(product(now - random.nextInt(365 * 24 * 60) * 60_000L));
+        }
+        return products;
+    }
+
+    public Product product(long createdAtMillis) {
+        Product product = new Product();
+        product.setId(new ObjectId().toHexString());
+        String brand = pick(BRANDS);
+        product.setName(pick(ADJECTIVES) + " " + pick(NOUNS) + " " + (100 + random.nextInt(900)));
+        product.setBrand(brand);
+        product.setCategoryName(pick(CATEGORIES));
+        product.setPrice(Math.round((10 + random.nextDouble() * 490) * 100) / 100.0);
+        product.setAvailableQuantity(random.nextInt(200));
+        product.setBoardSize(pick(BOARD_SIZES));
+        product.setAverageRating(Math.round(random.nextDouble() * 50) / 10.0);
+        product.setDescription("The " + product.getName() + " by " + brand + " for " + pick(TAGS) + " riding.");
+        product.setImages(new ArrayList<>(List.of("https://cdn.example.com/p/" + product.getId() + ".jpg")));
+        product.setTags(tags(2 + random.nextInt(3)));
+        product.setAttributes(attributes(ATTRIBUTES.size()));
+        product.setCreatedAt(new Date(createdAtMillis));
+        product.setSearchTerms(SearchTokenizer.terms(product));
+        return product;
+    }
+
+    public static Category category(String name, int requiredAttributes) {
+        Category category = new Category();
+        category.setName(name);
+        category.setRequiredAttributes(new LinkedHashSet<>(ATTRIBUTES.subList(0, Math.min(requiredAttributes, ATTRIBUTES.size()))));
+        return category;
+    }
+
+    private Set<String> tags(int count) {
+        Set<String> tags = new LinkedHashSet<>();
+        while (tags.size() < count) {
+            tags.add(pick(TAGS));
+        }
+        return tags;
+    }
+
+    private Map<String, String> attributes(int count) {
+        Map<String, String> attributes = new HashMap<>();
+        for (String attribute : ATTRIBUTES.subList(0, count)) {
+            attributes.put(attribute, attribute + "-" + random.nextInt(10));
+        }
+        return attributes;
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
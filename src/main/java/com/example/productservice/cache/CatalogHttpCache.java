@@ -0,0 +1,229 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.service.ProductProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ETags and Cache-Control for the catalog read endpoints. Search ETags come from a catalog version
+ * read from Mongo, the newest updatedAt and the document count, so every instance hands out the
+ * same ETag for the same catalog. The version is re-read at most once per version-refresh, and
+ * right away after a write through this instance. Product ETags are remembered per id once served,
+ * so a matching If-None-Match is answered without touching Mongo, but only while the change stream
+ * brings writes made through other instances here; otherwise nothing would forget a remembered ETag
+ * when another instance changes the product. Both roll over every ttl, which
+ * bounds how long replication lag can keep an ETag on an outdated page. All ETags are weak: gzip
+ * and the binary encodings give the same resource different bytes, and Tomcat never compresses a
+ * response that carries a strong ETag.
+ */
+@Component
+@Slf4j
+public class CatalogHttpCache {
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ProductChangeListener> changeListener;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock versionLoad = new ReentrantLock();
+    private volatile CatalogVersion catalogVersion;
+    private volatile CategoriesEtag categoriesEtag;
+    private final Cache<String, String> productEtags;
+    private final long ttlMillis;
+    private final long versionRefreshMillis;
+    private final CacheControl productCacheControl;
+    private final CacheControl searchCacheControl;
+    private final CacheControl categoryCacheControl;
+
+    public CatalogHttpCache(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                            ObjectProvider<ProductChangeListener> changeListener,
+                            @Value("${product-service.http-cache.etag-ttl:30s}") Duration ttl,
+                            @Value("${product-service.http-cache.catalog-version-refresh:1s}") Duration versionRefresh,
+                            @Value("${product-service.http-cache.max-entries:10000}") int maxEntries,
+                            @Value("${product-service.http-cache.product.max-age:60s}") Duration productMaxAge,
+                            @Value("${product-service.http-cache.search.max-age:0s}") Duration searchMaxAge,
+                            @Value("${product-service.http-cache.category.max-age:5m}") Duration categoryMaxAge) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.changeListener = changeListener;
+        this.ttlMillis = Math.max(ttl.toMillis(), 1);
+        this.versionRefreshMillis = versionRefresh.toMillis();
+        this.productEtags = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+        this.productCacheControl = cacheControl(productMaxAge);
+        this.searchCacheControl = cacheControl(searchMaxAge);
+        this.categoryCacheControl = cacheControl(categoryMaxAge);
+    }
+
+    // null when the catalog version cannot be read, the response then goes out without an ETag
+    public String searchEtag() {
+        String version = catalogVersion();
+        if (version == null) {
+            return null;
+        }
+        return "W/\"s-" + version + "-" + System.currentTimeMillis() / ttlMillis + "\"";
+    }
+
+    // null when the product has not been served recently, changed since, or writes elsewhere may go unnoticed
+    public String knownProductEtag(String id, ProductProjection projection) {
+        if (!invalidatesClusterWide()) {
+            return null;
+        }
+        String known = productEtags.getIfPresent(id);
+        return known == null ? null : withProjection(known, projection);
+    }
+
+    // Polling lags by an interval and misses deletes, so only the change stream counts
+    public boolean invalidatesClusterWide() {
+        ProductChangeListener listener = changeListener.getIfAvailable();
+        return listener != null && listener.getActiveMode().equals("change-stream");
+    }
+
+    // The product must carry version and the audit dates; the remembered ETag holds for every projection of it
+    public String rememberProduct(Product product, ProductProjection projection) {
+        long loadGeneration = generation.get();
+        String etag = productEtag(product, ProductProjection.FULL);
+        // A write that raced with the read may have already invalidated this id
+        if (generation.get() == loadGeneration) {
+            productEtags.put(product.getId(), etag);
+            if (generation.get() != loadGeneration) {
+                productEtags.invalidate(product.getId());
+            }
+        }
+        return withProjection(etag, projection);
+    }
+
+    public static String productEtag(Product product, ProductProjection projection) {
+        Date lastModified = lastModified(product);
+        return "W/\"p-" + product.getVersion() + "-" + (lastModified == null ? 0 : lastModified.getTime())
+                + projection.etagTag() + "\"";
+    }
+
+    private static String withProjection(String fullEtag, ProductProjection projection) {
+        return projection.isFull() ? fullEtag : fullEtag.substring(0, fullEtag.length() - 1) + projection.etagTag() + "\"";
+    }
+
+    public static Date lastModified(Product product) {
+        return product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt();
+    }
+
+    // The category cache hands out the same list until it changes, so the hash is computed once per list
+    public String categoriesEtag(List<Category> categories) {
+        CategoriesEtag known = categoriesEtag;
+        if (known != null && known.categories() == categories) {
+            return known.etag();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(categories));
+            String etag = "W/\"c-" + HexFormat.of().formatHex(digest) + "\"";
+            categoriesEtag = new CategoriesEtag(categories, etag);
+            return etag;
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not hash categories", ex);
+        }
+    }
+
+    public CacheControl productCacheControl() {
+        return productCacheControl;
+    }
+
+    public CacheControl searchCacheControl() {
+        return searchCacheControl;
+    }
+
+    public CacheControl categoryCacheControl() {
+        return categoryCacheControl;
+    }
+
+    // Stock moves change the product body too, so unlike the count cache every write counts
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.everything()) {
+            productEtags.invalidateAll();
+        } else {
+            productEtags.invalidateAll(event.productIds());
+        }
+    }
+
+    // Callers after a local write wait for the new version; otherwise one caller reloads while the rest keep the current one
+    private String catalogVersion() {
+        CatalogVersion current = catalogVersion;
+        if (isFresh(current)) {
+            return current.value();
+        }
+        boolean changed = current == null || current.generation() != generation.get();
+        if (changed) {
+            versionLoad.lock();
+        } else if (!versionLoad.tryLock()) {
+            return current.value();
+        }
+        try {
+            current = catalogVersion;
+            if (isFresh(current)) {
+                return current.value();
+            }
+            long loadGeneration = generation.get();
+            String value = loadCatalogVersion();
+            catalogVersion = new CatalogVersion(value, System.currentTimeMillis(), loadGeneration);
+            return value;
+        } catch (DataAccessException ex) {
+            log.warn("Could not read the catalog version, serving search without an ETag", ex);
+            return null;
+        } finally {
+            versionLoad.unlock();
+        }
+    }
+
+    private boolean isFresh(CatalogVersion version) {
+        return version != null && version.generation() == generation.get()
+                && version.loadedAt() + versionRefreshMillis > System.currentTimeMillis();
+    }
+
+    // Every write sets updatedAt and deletes lower the count; both reads are served from index and metadata
+    private String loadCatalogVersion() {
+        Query newest = new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        newest.fields().include("updatedAt");
+        Product product = mongoTemplate.findOne(newest, Product.class);
+        long updatedAt = product == null || product.getUpdatedAt() == null ? 0 : product.getUpdatedAt().getTime();
+        return Long.toHexString(updatedAt) + "-" + Long.toHexString(mongoTemplate.estimatedCount(Product.class));
+    }
+
+    // Zero max-age still lets clients store the body but makes them revalidate every time
+    private static CacheControl cacheControl(Duration maxAge) {
+        if (maxAge.isZero()) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    private record CatalogVersion(String value, long loadedAt, long generation) {
+    }
+
+    private record CategoriesEtag(List<Category> categories, String etag) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Category;
+import com.example.productservice.repository.CategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the categories collection. Reads go against an immutable snapshot
+ * swapped atomically, so lookups never lock; writes and refreshes publish a new snapshot.
+ * Names the database does not know are remembered for a short while so repeated lookups
+ * of a missing category do not each cost a query.
+ */
+@Component
+@Slf4j
+public class CategoryCache {
+    private final CategoryRepository categoryRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Cache<String, Boolean> absent;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CategoryCache(CategoryRepository categoryRepository, MeterRegistry meterRegistry,
+                         @Value("${product-service.category-cache.ttl:10m}") Duration ttl,
+                         @Value("${product-service.category-cache.max-entries:1000}") int maxEntries,
+                         @Value("${product-service.category-cache.negative-ttl:5s}") Duration negativeTtl) {
+        this.categoryRepository = categoryRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.absent = Caffeine.newBuilder()
+                .expireAfterWrite(negativeTtl)
+                .maximumSize(maxEntries)
+                .build();
+        this.hits = meterRegistry.counter("category.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("category.cache.requests", "result", "miss");
+        Gauge.builder("category.cache.size", snapshot, ref -> ref.get().byName().size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        refresh();
+    }
+
+    public Optional<Category> get(String name) {
+        Category category = current().byName().get(name);
+        if (category != null) {
+            hits.increment();
+            return Optional.of(category);
+        }
+        // Not cached yet, e.g. added through another instance since the last refresh
+        misses.increment();
+        if (absent.getIfPresent(name) != null) {
+            return Optional.empty();
+        }
+        Optional<Category> loaded = categoryRepository.findByName(name);
+        if (loaded.isPresent()) {
+            put(loaded.get());
+        } else {
+            absent.put(name, Boolean.TRUE);
+        }
+        return loaded;
+    }
+
+    public List<Category> all() {
+        Snapshot current = current();
+        if (!current.complete()) {
+            misses.increment();
+            return categoryRepository.findAll();
+        }
+        hits.increment();
+        return current.all();
+    }
+
+    public void put(Category category) {
+        absent.invalidate(category.getName());
+        snapshot.updateAndGet(current -> {
+            Map<String, Category> byName = new HashMap<>(current.byName());
+            if (!byName.containsKey(category.getName()) && byName.size() >= maxEntries) {
+                // all() can no longer answer from the snapshot, the category it left out exists
+                return current.complete() ? current.withEntries(byName, false) : current;
+            }
+            byName.put(category.getName(), category);
+            return current.withEntries(byName, current.complete());
+        });
+    }
+
+    public void refresh() {
+        try {
+            Snapshot before = snapshot.get();
+            List<Category> categories = categoryRepository.findAll();
+            Map<String, Category> byName = new HashMap<>();
+            for (Category category : categories) {
+                if (byName.size() == maxEntries) {
+                    break;
+                }
+                byName.put(category.getName(), category);
+            }
+            boolean complete = categories.size() <= maxEntries;
+            if (!complete) {
+                log.warn("Category cache holds {} of {} categories, raise product-service.category-cache.max-entries",
+                        maxEntries, categories.size());
+            }
+            absent.invalidateAll();
+            long loadedAt = System.currentTimeMillis();
+            snapshot.updateAndGet(current -> merge(before, current, byName, complete, loadedAt));
+        } catch (DataAccessException ex) {
+            log.warn("Could not refresh category cache, keeping the previous snapshot", ex);
+        }
+    }
+
+    // Categories put while findAll ran may be missing from what it read, so they win over the loaded copy
+    private Snapshot merge(Snapshot before, Snapshot current, Map<String, Category> loaded, boolean complete, long loadedAt) {
+        Map<String, Category> byName = new HashMap<>(loaded);
+        if (current.version() != before.version()) {
+            for (Map.Entry<String, Category> entry : current.byName().entrySet()) {
+                if (before.byName().get(entry.getKey()) == entry.getValue()) {
+                    continue;
+                }
+                if (byName.containsKey(entry.getKey()) || byName.size() < maxEntries) {
+                    byName.put(entry.getKey(), entry.getValue());
+                } else {
+                    complete = false;
+                }
+            }
+            if (before.complete() && !current.complete()) {
+                // a put was turned away at capacity, and what findAll read may predate that category
+                complete = false;
+            }
+        }
+        return new Snapshot(Map.copyOf(byName), List.copyOf(byName.values()), loadedAt, complete, current.version() + 1);
+    }
+
+    // Only one caller reloads an expired snapshot; everyone else keeps reading the old one meanwhile
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (System.currentTimeMillis() - current.loadedAt() > ttlMillis && refreshing.compareAndSet(false, true)) {
+            try {
+                refresh();
+            } finally {
+                refreshing.set(false);
+            }
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    // version moves with every published snapshot, so a refresh can tell whether puts landed while it loaded
+    private record Snapshot(Map<String, Category> byName, List<Category> all, long loadedAt, boolean complete, long version) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), List.of(), 0, false, 0);
+
+        Snapshot withEntries(Map<String, Category> entries, boolean complete) {
+            return new Snapshot(Map.copyOf(entries), List.copyOf(entries.values()), loadedAt, complete, version + 1);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.dto.ProductCacheSettingsDTO;
+import com.example.productservice.dto.ProductCacheStatus;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Full product documents by id for product and stock reads. Bounded by an estimate of the heap the
+ * documents take, with Caffeine's W-TinyLFU deciding what to evict. Local writes invalidate through
+ * {@link ProductsChangedEvent}; writes made by other instances arrive through {@link ProductChangeListener}.
+ * Cached instances are shared between requests and must not be modified.
+ */
+@Component
+public class ProductCache {
+    private final Cache<String, Product> products;
+    // Bumped on every invalidation so a document loaded before a write is never stored after it
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean enabled;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${product-service.product-cache.enabled:true}") boolean enabled,
+                        @Value("${product-service.product-cache.max-size:64MB}") DataSize maxSize,
+                        @Value("${product-service.product-cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String id, Product product) -> estimateSize(product))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns null, and caches nothing, when the loader finds no product
+    public Product get(String id, Supplier<Product> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Product cached = products.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        Product loaded = loader.get();
+        if (loaded != null && generation.get() == loadGeneration) {
+            products.put(id, loaded);
+            if (generation.get() != loadGeneration) {
+                products.invalidate(id);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(Collection<String> ids) {
+        generation.incrementAndGet();
+        products.invalidateAll(ids);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        products.invalidateAll();
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        // Stock-only writes count too, availableQuantity is part of the cached document
+        if (event.everything()) {
+            invalidateAll();
+        } else {
+            invalidate(event.productIds());
+        }
+    }
+
+    public ProductCacheStatus status(String invalidation) {
+        CacheStats stats = products.stats();
+        return new ProductCacheStatus(enabled, maximumBytes(), expireAfterWrite().toSeconds(), products.estimatedSize(),
+                products.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L),
+                stats.hitRate(), stats.evictionCount(), invalidation);
+    }
+
+    // Unset fields keep their current value; resizing evicts right away if the cache is now over the bound
+    public void update(ProductCacheSettingsDTO settings) {
+        if (settings.getMaxSizeBytes() != null) {
+            products.policy().eviction().ifPresent(eviction -> eviction.setMaximum(settings.getMaxSizeBytes()));
+        }
+        if (settings.getTtlSeconds() != null) {
+            products.policy().expireAfterWrite()
+                    .ifPresent(expiration -> expiration.setExpiresAfter(Duration.ofSeconds(settings.getTtlSeconds())));
+        }
+        if (settings.getEnabled() != null) {
+            enabled = settings.getEnabled();
+            if (!enabled) {
+                invalidateAll();
+            }
+        }
+    }
+
+    private long maximumBytes() {
+        return products.policy().eviction().map(eviction -> eviction.getMaximum()).orElse(0L);
+    }
+
+    private Duration expireAfterWrite() {
+        return products.policy().expireAfterWrite().map(expiration -> expiration.getExpiresAfter()).orElse(Duration.ZERO);
+    }
+
+    // Rough heap footprint: object headers plus two bytes per character of every string the document holds
+    static int estimateSize(Product product) {
+        long size = 256 + chars(product.getId()) + chars(product.getName()) + chars(product.getBrand())
+                + chars(product.getCategoryName()) + chars(product.getDescription()) + chars(product.getBoardSize());
+        if (product.getImages() != null) {
+            for (String image : product.getImages()) {
+                size += 48 + chars(image);
+            }
+        }
+        if (product.getAttributes() != null) {
+            for (Map.Entry<String, String> attribute : product.getAttributes().entrySet()) {
+                size += 64 + chars(attribute.getKey()) + chars(attribute.getValue());
+            }
+        }
+        if (product.getTags() != null) {
+            for (String tag : product.getTags()) {
+                size += 64 + chars(tag);
+            }
+        }
+        if (product.getSearchTerms() != null) {
+            for (String term : product.getSearchTerms()) {
+                size += 64 + chars(term);
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
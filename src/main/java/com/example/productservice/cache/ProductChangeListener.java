@@ -0,0 +1,178 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the catalog caches of every instance coherent with writes made anywhere in the cluster by
+ * publishing the {@link ProductsChangedEvent} a local write would have. Watches a change stream on
+ * the products collection; where change streams are unavailable (a standalone server) it falls back
+ * to polling for recently updated products. Polling cannot see deletes, so a product deleted through
+ * another instance stays cached until the cache ttl.
+ */
+@Component
+@Slf4j
+// Nothing reads the catalog caches under the reactive profile
+@Profile("!reactive")
+public class ProductChangeListener {
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String mode;
+    private final long pollIntervalMillis;
+    private volatile boolean running;
+    private volatile String activeMode = "off";
+    private long lastPoll;
+    private Thread worker;
+
+    public ProductChangeListener(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher,
+                                 @Value("${product-service.product-cache.invalidation:auto}") String mode,
+                                 @Value("${product-service.product-cache.poll-interval:5s}") Duration pollInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.mode = mode;
+        this.pollIntervalMillis = pollInterval.toMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running || mode.equals("off")) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "product-cache-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public String getActiveMode() {
+        return activeMode;
+    }
+
+    private void run() {
+        boolean polling = mode.equals("polling");
+        while (running) {
+            try {
+                if (polling) {
+                    poll();
+                    sleep();
+                } else {
+                    watch();
+                }
+            } catch (MongoCommandException ex) {
+                if (mode.equals("auto")) {
+                    log.info("Change streams unavailable on products ({}), polling every {} ms instead",
+                            ex.getErrorMessage(), pollIntervalMillis);
+                    polling = true;
+                } else {
+                    log.warn("Product change stream failed, retrying", ex);
+                    sleep();
+                }
+            } catch (RuntimeException ex) {
+                if (running) {
+                    log.warn("Product cache invalidation failed, retrying", ex);
+                    sleep();
+                }
+            }
+        }
+        activeMode = "off";
+    }
+
+    private void watch() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mongoTemplate
+                .getCollection(mongoTemplate.getCollectionName(Product.class))
+                .watch()
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .cursor()) {
+            // Anything cached before the stream opened may have missed a change, including one made while reconnecting
+            eventPublisher.publishEvent(ProductsChangedEvent.all());
+            activeMode = "change-stream";
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    apply(change);
+                }
+            }
+        }
+    }
+
+    void apply(ChangeStreamDocument<Document> change) {
+        if (change.getDocumentKey() != null && change.getDocumentKey().containsKey("_id")) {
+            eventPublisher.publishEvent(ProductsChangedEvent.of(idOf(change.getDocumentKey().get("_id"))));
+        } else {
+            // drop, rename and invalidate events carry no document key
+            eventPublisher.publishEvent(ProductsChangedEvent.all());
+        }
+    }
+
+    // Overlaps the previous window by one interval so writes stamped by a lagging clock are not missed
+    void poll() {
+        long now = System.currentTimeMillis();
+        if (lastPoll == 0) {
+            eventPublisher.publishEvent(ProductsChangedEvent.all());
+            lastPoll = now;
+            activeMode = "polling";
+            return;
+        }
+        try {
+            Query query = Query.query(Criteria.where("updatedAt").gte(new Date(lastPoll - pollIntervalMillis)));
+            query.fields().include("_id");
+            Set<String> ids = mongoTemplate.find(query, Product.class).stream().map(Product::getId).collect(Collectors.toSet());
+            if (!ids.isEmpty()) {
+                eventPublisher.publishEvent(ProductsChangedEvent.of(ids));
+            }
+            lastPoll = now;
+        } catch (DataAccessException ex) {
+            log.warn("Could not poll for changed products", ex);
+        }
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        if (id.isString()) {
+            return id.asString().getValue();
+        }
+        return id.toString();
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
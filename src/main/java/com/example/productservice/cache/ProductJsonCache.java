@@ -0,0 +1,72 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+
+/**
+ * UTF-8 JSON of products as they were last written to a response, so a hot product is encoded
+ * once per change instead of once per request. Keyed by what the representation depends on: the
+ * document version (bumped by edits), updatedAt and availableQuantity (moved by stock updates,
+ * which leave the version alone), and which fields the projection kept. A change therefore never
+ * hits an old entry and needs no invalidation; superseded entries age out under the size bound.
+ */
+@Component
+public class ProductJsonCache {
+    private final Cache<JsonKey, byte[]> encoded;
+    private final boolean enabled;
+
+    public ProductJsonCache(MeterRegistry meterRegistry,
+                            @Value("${product-service.product-json-cache.enabled:true}") boolean enabled,
+                            @Value("${product-service.product-json-cache.max-size:32MB}") DataSize maxSize) {
+        this.enabled = enabled;
+        this.encoded = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((JsonKey key, byte[] json) -> 96 + json.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, encoded, "product-json");
+    }
+
+    public byte[] get(Product product, ObjectWriter writer) throws IOException {
+        JsonKey key = enabled ? keyOf(product) : null;
+        if (key == null) {
+            return writer.writeValueAsBytes(product);
+        }
+        byte[] json = encoded.getIfPresent(key);
+        if (json == null) {
+            json = writer.writeValueAsBytes(product);
+            encoded.put(key, json);
+        }
+        return json;
+    }
+
+    // Documents written without auditing carry no version stamp and are always encoded
+    static JsonKey keyOf(Product product) {
+        if (product.getId() == null || product.getVersion() == null || product.getUpdatedAt() == null) {
+            return null;
+        }
+        int fields = bit(product.getName(), 0) | bit(product.getBrand(), 1) | bit(product.getPrice(), 2)
+                | bit(product.getAvailableQuantity(), 3) | bit(product.getImages(), 4) | bit(product.getCategoryName(), 5)
+                | bit(product.getAttributes(), 6) | bit(product.getDescription(), 7) | bit(product.getTags(), 8)
+                | bit(product.getAverageRating(), 9) | bit(product.getBoardSize(), 10) | bit(product.getCreatedAt(), 11);
+        return new JsonKey(product.getId(), product.getVersion(), product.getUpdatedAt().getTime(),
+                product.getAvailableQuantity(), fields, product.getImages() == null ? -1 : product.getImages().size());
+    }
+
+    private static int bit(Object value, int position) {
+        return value == null ? 0 : 1 << position;
+    }
+
+    // images counts separately because a summary slices the gallery down to its first image
+    record JsonKey(String id, long version, long updatedAt, Integer availableQuantity, int fields, int images) {
+    }
+}
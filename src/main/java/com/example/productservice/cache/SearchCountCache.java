@@ -0,0 +1,90 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of search totals keyed by normalized filter, so paging through
+ * the same result set does not recount it on every request.
+ */
+@Component
+public class SearchCountCache {
+    private final Cache<CountKey, Long> counts;
+    // Bumped on every catalog write so a count computed before the write is never stored after it
+    private final AtomicLong generation = new AtomicLong();
+    private final int estimatedCountCap;
+
+    public SearchCountCache(@Value("${product-service.search.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${product-service.search.count-cache.max-entries:10000}") int maxEntries,
+                            @Value("${product-service.search.estimated-count-cap:1000}") int estimatedCountCap) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        this.estimatedCountCap = estimatedCountCap;
+    }
+
+    public long get(ProductSearchFilter filter, CountMode mode, LongSupplier loader) {
+        OptionalLong cached = getIfPresent(filter, mode);
+        if (cached.isPresent()) {
+            return cached.getAsLong();
+        }
+
+        long loadGeneration = generation();
+        long count = loader.getAsLong();
+        put(filter, mode, count, loadGeneration);
+        return count;
+    }
+
+    // Non-blocking callers look up, load on their own, then put with the generation read before loading
+    public OptionalLong getIfPresent(ProductSearchFilter filter, CountMode mode) {
+        Long cached = counts.getIfPresent(new CountKey(filter, mode));
+        return cached == null ? OptionalLong.empty() : OptionalLong.of(cached);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(ProductSearchFilter filter, CountMode mode, long count, long loadGeneration) {
+        CountKey key = new CountKey(filter, mode);
+        if (generation.get() == loadGeneration) {
+            counts.put(key, count);
+            if (generation.get() != loadGeneration) {
+                counts.invalidate(key);
+            }
+        }
+    }
+
+    public int getEstimatedCountCap() {
+        return estimatedCountCap;
+    }
+
+    // Metadata counts are approximate and a count that reached the cap is only a lower bound
+    public boolean isEstimate(ProductSearchFilter filter, CountMode mode, long count) {
+        return mode == CountMode.ESTIMATED && (filter.isUnfiltered() || count >= estimatedCountCap);
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (event.stockOnly()) {
+            return;
+        }
+        generation.incrementAndGet();
+        counts.invalidateAll();
+    }
+
+    private record CountKey(ProductSearchFilter filter, CountMode mode) {
+    }
+}
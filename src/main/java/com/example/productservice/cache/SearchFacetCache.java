@@ -0,0 +1,71 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchFacets;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Facet counts by normalized filter. Paging through results or switching the sort order
+ * keeps the filters, so the sidebar is served from here instead of re-aggregating.
+ */
+@Component
+public class SearchFacetCache {
+    private final Cache<ProductSearchFilter, SearchFacets> facets;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchFacetCache(@Value("${product-service.search.facet-cache.ttl:60s}") Duration ttl,
+                            @Value("${product-service.search.facet-cache.max-entries:5000}") int maxEntries) {
+        this.facets = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public SearchFacets get(ProductSearchFilter filter, Supplier<SearchFacets> loader) {
+        Optional<SearchFacets> cached = getIfPresent(filter);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long loadGeneration = generation();
+        SearchFacets loaded = loader.get();
+        put(filter, loaded, loadGeneration);
+        return loaded;
+    }
+
+    public Optional<SearchFacets> getIfPresent(ProductSearchFilter filter) {
+        return Optional.ofNullable(facets.getIfPresent(filter));
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(ProductSearchFilter filter, SearchFacets loaded, long loadGeneration) {
+        if (generation.get() == loadGeneration) {
+            facets.put(filter, loaded);
+            if (generation.get() != loadGeneration) {
+                facets.invalidate(filter);
+            }
+        }
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (event.stockOnly()) {
+            return;
+        }
+        generation.incrementAndGet();
+        facets.invalidateAll();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.productservice.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Structured access log. Server errors and slow requests are always logged; other requests are
+ * sampled so that steady traffic does not turn into a log line per request.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(double sampleRate, Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses only have their final status once the async part completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, System.nanoTime() - start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response, long elapsedNanos) {
+        int status = response.getStatus();
+        if (!shouldLog(status, elapsedNanos) || !accessLog.isInfoEnabled()) {
+            return;
+        }
+        // The path only: query strings can carry search terms and cursors we do not want in logs
+        accessLog.info("{} {} {}", kv("method", request.getMethod()), kv("path", request.getRequestURI()),
+                kv("status", status), kv("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+    }
+
+    boolean shouldLog(int status, long elapsedNanos) {
+        return status >= 500
+                || elapsedNanos >= slowThresholdNanos
+                || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
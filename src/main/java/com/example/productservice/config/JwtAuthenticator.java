@@ -0,0 +1,121 @@
+package com.example.productservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Turns an accessToken cookie value into an Authentication. A verified token is remembered by its
+ * SHA-256 hash until its exp claim, so the same cookie is not re-verified on every request.
+ * Shared by the servlet and the reactive security filters.
+ */
+public class JwtAuthenticator {
+    public static final String COOKIE_NAME = "accessToken";
+
+    private static final String secretKey = "bfc80827f07c171a3e1f0661a1abfd52ab1fec954283772e19c1a673efa58e41";
+
+    // Built once, the key and parser are immutable and thread-safe
+    private final JwtParser jwtParser = Jwts.parser().verifyWith(getSignKey()).build();
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer verificationTimer;
+
+    public JwtAuthenticator(MeterRegistry meterRegistry, int maxEntries) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+        this.hits = meterRegistry.counter("jwt.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("jwt.cache.requests", "result", "miss");
+        this.verificationTimer = meterRegistry.timer("jwt.verification");
+        Gauge.builder("jwt.cache.size", verifiedTokens, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    // Throws on a token that is malformed, expired or not signed with our key
+    public Authentication authenticate(String token) {
+        String tokenHash = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            hits.increment();
+            return cached.authentication();
+        }
+        misses.increment();
+
+        Claims claims = verificationTimer.record(() -> jwtParser.parseSignedClaims(token).getPayload());
+        String userId = claims.getSubject();
+        List<String> authorities = (List<String>) claims.get("authorities");
+
+        // Convert authority strings to GrantedAuthority objects
+        List<GrantedAuthority> authorityList = authorities.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableList());
+        Authentication auth = new UsernamePasswordAuthenticationToken(userId,null,
+                authorityList);
+
+        // Tokens without exp are verified every time rather than trusted indefinitely
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(tokenHash, new VerifiedToken(auth, expiration.getTime()));
+        }
+        return auth;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static SecretKey getSignKey() {
+        byte[] key = Decoders.BASE64.decode(secretKey);
+        return Keys.hmacShaKeyFor(key);
+    }
+
+    private record VerifiedToken(Authentication authentication, long expiresAt) {
+    }
+
+    // Each entry lives until its own exp claim, reads do not extend it
+    private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String tokenHash, VerifiedToken verified, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(verified.expiresAt() - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.productservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!reactive")
+public class LoggingConfig {
+
+    // Ahead of the security filters so rejected requests show up in the access log too
+    @Bean
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilter(
+            @Value("${product-service.access-log.sample-rate:0.01}") double sampleRate,
+            @Value("${product-service.access-log.slow-threshold:500ms}") Duration slowThreshold) {
+        FilterRegistrationBean<AccessLogFilter> registration =
+                new FilterRegistrationBean<>(new AccessLogFilter(sampleRate, slowThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.productservice.config;
+
+import com.example.productservice.cache.ProductJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Instrumentation that Spring Boot does not provide on its own. Request timers
+ * (http.server.requests) and per-command Mongo timers (mongodb.driver.commands) are auto-configured.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SlowMongoCommandListener slowMongoCommandListener(
+            @Value("${product-service.mongo.slow-command-threshold:100ms}") Duration threshold) {
+        return new SlowMongoCommandListener(threshold);
+    }
+
+    // Applies to both the blocking and the reactive client
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowMongoCommandLogging(SlowMongoCommandListener listener) {
+        return settings -> settings.addCommandListener(listener);
+    }
+
+    // Replaces Boot's default Jackson converter for the servlet stack; product bodies are served pre-encoded
+    @Bean
+    @Profile("!reactive")
+    public TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                                                             ProductJsonCache productJsonCache) {
+        return new ProductJsonHttpMessageConverter(objectMapper, meterRegistry, productJsonCache);
+    }
+}
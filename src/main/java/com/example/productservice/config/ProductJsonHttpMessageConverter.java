@@ -0,0 +1,48 @@
+package com.example.productservice.config;
+
+import com.example.productservice.cache.ProductJsonCache;
+import com.example.productservice.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a single Product body from {@link ProductJsonCache} instead of running Jackson over it
+ * on every request. Any other body, or a Product requested in a charset other than UTF-8, goes
+ * through the regular Jackson path.
+ */
+public class ProductJsonHttpMessageConverter extends TimedJacksonHttpMessageConverter {
+    private final ProductJsonCache productJsonCache;
+    private final ObjectWriter productWriter;
+
+    public ProductJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry, ProductJsonCache productJsonCache) {
+        super(objectMapper, meterRegistry);
+        this.productJsonCache = productJsonCache;
+        this.productWriter = objectMapper.writerFor(Product.class);
+    }
+
+    @Override
+    protected void writeBody(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (!(object instanceof Product product) || !isUtf8(outputMessage.getHeaders().getContentType())) {
+            super.writeBody(object, type, outputMessage);
+            return;
+        }
+        byte[] json = productJsonCache.get(product, productWriter);
+        outputMessage.getHeaders().setContentLength(json.length);
+        outputMessage.getBody().write(json);
+    }
+
+    private static boolean isUtf8(MediaType contentType) {
+        Charset charset = contentType == null ? null : contentType.getCharset();
+        return charset == null || charset.equals(StandardCharsets.UTF_8);
+    }
+}
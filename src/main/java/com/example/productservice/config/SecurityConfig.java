@@ -1,7 +1,10 @@
 package com.example.productservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -17,24 +20,33 @@ import static org.springframework.web.bind.annotation.RequestMethod.PATCH;
 
 @Configuration
 @EnableWebSecurity
+@Profile("!reactive")
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, MeterRegistry meterRegistry,
+                                                   @Value("${product-service.jwt-cache.max-entries:10000}") int jwtCacheMaxEntries) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(request -> request
                         .requestMatchers("/api/products/remove-product/**").hasAuthority("Admin")
                         .requestMatchers("/api/category/add-category/**").hasAuthority("Admin")
                         .requestMatchers("/api/products/add-product/**").hasAuthority("Admin")
+                        .requestMatchers("/api/products/bulk").hasAuthority("Admin")
                         .requestMatchers("/api/products/edit-product/**").hasAuthority("Admin")
+                        .requestMatchers("/api/products/search/explain").hasAuthority("Admin")
+                        .requestMatchers("/api/admin/**").hasAuthority("Admin")
+                        // Called by the order flow with its service token, never by shoppers directly
+                        .requestMatchers("/api/products/stock/**").hasAnyAuthority("Admin", "Service")
                         .requestMatchers("/api/products/search").permitAll()
                         .requestMatchers("/api/products/all").permitAll()
+                        .requestMatchers("/api/products/export").permitAll()
                         .requestMatchers("/api/category/all").permitAll()
                         .requestMatchers("/api/products/get-quantity/**").permitAll()
+                        .requestMatchers("/api/products/batch").permitAll()
                         .requestMatchers("/api/products/{id}").permitAll()
                         .anyRequest().authenticated())
-                .addFilterBefore(new RequestValidationFilter(), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new RequestValidationFilter(meterRegistry, jwtCacheMaxEntries), UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         return http.build();
     }
@@ -0,0 +1,69 @@
+package com.example.productservice.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs Mongo commands slower than a threshold, including the filter or aggregation pipeline
+ * of read commands. Timings per command and collection come from Boot's MongoMetricsCommandListener.
+ */
+@Slf4j
+public class SlowMongoCommandListener implements CommandListener {
+    private static final Set<String> CAPTURED_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    private static final int MAX_LOGGED_CHARS = 4000;
+
+    private final long thresholdNanos;
+    // The driver only guarantees the command document during commandStarted, so read commands are cloned
+    private final Map<Integer, BsonDocument> inFlight = new ConcurrentHashMap<>();
+
+    public SlowMongoCommandListener(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (thresholdNanos > 0 && CAPTURED_COMMANDS.contains(event.getCommandName())) {
+            inFlight.put(event.getRequestId(), event.getCommand().clone());
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonDocument command = inFlight.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (thresholdNanos > 0 && elapsed >= thresholdNanos) {
+            log.warn("Slow Mongo {} took {} ms: {}", event.getCommandName(), TimeUnit.NANOSECONDS.toMillis(elapsed), describe(command));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        BsonDocument command = inFlight.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (thresholdNanos > 0 && elapsed >= thresholdNanos) {
+            log.warn("Slow Mongo {} failed after {} ms: {}", event.getCommandName(), TimeUnit.NANOSECONDS.toMillis(elapsed), describe(command));
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static String describe(BsonDocument command) {
+        if (command == null) {
+            return "(command not captured)";
+        }
+        String json = command.toJson();
+        return json.length() > MAX_LOGGED_CHARS ? json.substring(0, MAX_LOGGED_CHARS) + "..." : json;
+    }
+}
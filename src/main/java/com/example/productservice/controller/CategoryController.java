@@ -1,10 +1,12 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.cache.CatalogHttpCache;
 import com.example.productservice.entity.Category;
 import com.example.productservice.entity.Product;
 import com.example.productservice.service.CategoryService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,11 +15,14 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/category")
+@Profile("!reactive")
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogHttpCache catalogHttpCache;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogHttpCache catalogHttpCache) {
         this.categoryService = categoryService;
+        this.catalogHttpCache = catalogHttpCache;
     }
 
     @PostMapping("/add-category")
@@ -29,7 +34,11 @@ public class CategoryController {
     @GetMapping("/all")
     public ResponseEntity<List<Category>> getAllProducts() {
         List<Category> allCategories = categoryService.getAllProducts();
-        return ResponseEntity.ok(allCategories);
+        // Categories come from memory; a matching If-None-Match only skips serialization
+        return ResponseEntity.ok()
+                .eTag(catalogHttpCache.categoriesEtag(allCategories))
+                .cacheControl(catalogHttpCache.categoryCacheControl())
+                .body(allCategories);
     }
 
 //    @GetMapping("/{categoryName}")
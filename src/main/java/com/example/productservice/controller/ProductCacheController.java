@@ -0,0 +1,49 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.cache.ProductChangeListener;
+import com.example.productservice.dto.ProductCacheSettingsDTO;
+import com.example.productservice.dto.ProductCacheStatus;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runtime settings of the product read cache on this instance. Changes are not shared with
+ * other instances and reset to the configured properties on restart.
+ */
+@RestController
+@RequestMapping("/api/admin/product-cache")
+@Profile("!reactive")
+public class ProductCacheController {
+    private final ProductCache productCache;
+    private final ProductChangeListener changeListener;
+
+    public ProductCacheController(ProductCache productCache, ProductChangeListener changeListener) {
+        this.productCache = productCache;
+        this.changeListener = changeListener;
+    }
+
+    @GetMapping
+    public ProductCacheStatus getStatus() {
+        return productCache.status(changeListener.getActiveMode());
+    }
+
+    @PutMapping
+    public ProductCacheStatus updateSettings(@RequestBody @Valid ProductCacheSettingsDTO settings) {
+        productCache.update(settings);
+        return productCache.status(changeListener.getActiveMode());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<String> clear() {
+        productCache.invalidateAll();
+        return ResponseEntity.ok("Product cache cleared");
+    }
+}
@@ -1,43 +1,79 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.cache.CatalogHttpCache;
+import com.example.productservice.dto.BatchItem;
+import com.example.productservice.dto.BulkIngestReport;
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.ExportFormat;
+import com.example.productservice.dto.PageResponse;
+import com.example.productservice.dto.ProductBatchRequestDTO;
 import com.example.productservice.dto.ProductEditDTO;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchExplainReport;
+import com.example.productservice.dto.SearchSource;
+import com.example.productservice.dto.StockReleaseDTO;
+import com.example.productservice.dto.StockReservationDTO;
+import com.example.productservice.dto.StockReservationResultDTO;
 import com.example.productservice.entity.Product;
+import com.example.productservice.service.ProductBulkService;
+import com.example.productservice.service.ProductExportService;
+import com.example.productservice.service.ProductProjection;
+import com.example.productservice.service.ProductSearchQueries;
 import com.example.productservice.service.ProductService;
-import com.mongodb.client.model.Collation;
+import com.example.productservice.service.SearchExplainService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 
 
 @RestController
 @RequestMapping("/api/products")
+@Profile("!reactive")
 @Validated
 public class ProductController {
     private final ProductService productService;
+    private final SearchExplainService searchExplainService;
+    private final ProductBulkService productBulkService;
+    private final ProductExportService productExportService;
+    private final CatalogHttpCache catalogHttpCache;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, SearchExplainService searchExplainService,
+                             ProductBulkService productBulkService, ProductExportService productExportService,
+                             CatalogHttpCache catalogHttpCache) {
         this.productService = productService;
+        this.searchExplainService = searchExplainService;
+        this.productBulkService = productBulkService;
+        this.productExportService = productExportService;
+        this.catalogHttpCache = catalogHttpCache;
     }
 
     @PostMapping("add-product/{categoryName}")
@@ -45,11 +81,34 @@ public class ProductController {
         return ResponseEntity.ok("Added product successfully! Id is: " + id);
     }
 
+    // Accepts a JSON array or NDJSON; category applies to items that do not carry a categoryName
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkIngestReport bulkAddProducts(@RequestParam(required = false) String category,
+                                            HttpServletRequest request) throws IOException {
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))) {
+            return productBulkService.ingestNdjson(request.getInputStream(), category);
+        }
+        return productBulkService.ingestJsonArray(request.getInputStream(), category);
+    }
+
     @GetMapping("/all")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> allProducts = productService.getAllProducts();
+    public ResponseEntity<List<Product>> getAllProducts(@RequestParam(required = false) String fields,
+                                                        @RequestParam(required = false) String view) {
+        List<Product> allProducts = productService.getAllProducts(ProductProjection.of(fields, view));
         return ResponseEntity.ok(allProducts);
     }
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            @RequestHeader HttpHeaders headers) {
+        ExportFormat exportFormat = ExportFormat.negotiate(format, headers.getAccept());
+        ProductProjection projection = ProductProjection.of(fields, view);
+        StreamingResponseBody body = out -> productExportService.exportProducts(out, exportFormat, projection);
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
     @DeleteMapping("/remove-product/{id}")
     public ResponseEntity<String> removeProduct(@PathVariable @NotBlank String id) {
         productService.deleteProduct(id);
@@ -61,8 +120,9 @@ public class ProductController {
 //            @RequestParam
 //    )
 
+    // keyword matches whole words, or word prefixes written as "skate*"; there is no substring match
     @GetMapping("/search")
-    public Page<Product> searchProducts(
+    public ResponseEntity<PageResponse<Product>> searchProducts(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false, defaultValue = "") String category,
             @RequestParam(required = false) Double minPrice,
@@ -72,12 +132,86 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "") String boardSize,
             @RequestParam(required = false, defaultValue = "") String brand,
             @RequestParam(required = false, defaultValue = "name") String sortBy,
-            @RequestParam(required = false, defaultValue = "asc") String sortDirection) {
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false, defaultValue = "exact") String countMode,
+            @RequestParam(required = false, defaultValue = "live") String source,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            @RequestParam(defaultValue = "false") boolean facets,
+            WebRequest webRequest) {
+        // Parameters are checked before the ETag, an invalid request must not be answered with 304
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, boardSize, brand);
+        ProductSearchQueries.validateSearch(filter, sortBy, sortDirection);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
+        CountMode mode = CountMode.fromString(countMode);
+        SearchSource searchSource = SearchSource.fromString(source);
+        ProductProjection projection = ProductProjection.of(fields, view);
+        String etag = catalogHttpCache.searchEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return notModified(catalogHttpCache.searchCacheControl());
+        }
 
+        Page<Product> products = productService.searchProducts(filter, sortBy, sortDirection, mode, searchSource, projection,
+                facets, pageable);
+        return ResponseEntity.ok().eTag(etag).cacheControl(catalogHttpCache.searchCacheControl()).varyBy(HttpHeaders.ACCEPT)
+                .body(PageResponse.of(products));
+    }
 
+    // Keyset mode: selected whenever a cursor param is present, pass an empty cursor for the first page
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<CursorPage<Product>> searchProductsAfter(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false, defaultValue = "") String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false, defaultValue = "") String boardSize,
+            @RequestParam(required = false, defaultValue = "") String brand,
+            @RequestParam(required = false, defaultValue = "name") String sortBy,
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, boardSize, brand);
+        ProductSearchQueries.validateCursorSearch(sortBy, sortDirection, cursor);
+        ProductProjection projection = ProductProjection.of(fields, view);
+        String etag = catalogHttpCache.searchEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return notModified(catalogHttpCache.searchCacheControl());
+        }
+        CursorPage<Product> products = productService.searchProductsAfter(filter, sortBy, sortDirection, projection, cursor, size);
+        return ResponseEntity.ok().eTag(etag).cacheControl(catalogHttpCache.searchCacheControl()).varyBy(HttpHeaders.ACCEPT)
+                .body(products);
+    }
+
+    @GetMapping("/search/explain")
+    public SearchExplainReport explainSearch(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false, defaultValue = "") String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer page,
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false, defaultValue = "") String boardSize,
+            @RequestParam(required = false, defaultValue = "") String brand,
+            @RequestParam(required = false, defaultValue = "name") String sortBy,
+            @RequestParam(required = false, defaultValue = "asc") String sortDirection) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
-        System.out.println(pageable.getSort());
-        return productService.searchProducts(keyword, category, minPrice, maxPrice, sortBy, sortDirection, boardSize, brand, pageable);
+        ProductSearchFilter filter = ProductSearchFilter.of(keyword, category, minPrice, maxPrice, boardSize, brand);
+        return searchExplainService.explainSearch(filter, pageable);
+    }
+
+    @PostMapping("/batch")
+    public List<BatchItem<Product>> getProducts(@RequestBody @Valid ProductBatchRequestDTO request,
+                                                @RequestParam(required = false) String fields,
+                                                @RequestParam(required = false) String view) {
+        return productService.getProductsByIds(request.getIds(), ProductProjection.of(fields, view));
+    }
+
+    @PostMapping("/get-quantity")
+    public List<BatchItem<Integer>> getAvailableQuantities(@RequestBody @Valid ProductBatchRequestDTO request) {
+        return productService.getAvailableQuantities(request.getIds());
     }
 
     @GetMapping("/get-quantity/{productId}")
@@ -85,11 +219,54 @@ public class ProductController {
         return productService.getAvailableQuantity(productId);
     }
 
+    @PostMapping("/stock/reserve")
+    public StockReservationResultDTO reserveStock(@RequestBody @Valid StockReservationDTO reservation) {
+        return productService.reserveStock(reservation.getItems());
+    }
+
+    @PostMapping("/stock/release")
+    public StockReservationResultDTO releaseStock(@RequestBody @Valid StockReleaseDTO release) {
+        return productService.releaseStock(release.getReservationId());
+    }
+
     @GetMapping("/{id}")
-    public Product getProduct(@PathVariable @NotBlank String id) {
-        return productService.getProductById(id);
+    public ResponseEntity<Product> getProduct(@PathVariable @NotBlank String id,
+                                              @RequestParam(required = false) String fields,
+                                              @RequestParam(required = false) String view,
+                                              WebRequest webRequest) {
+        ProductProjection projection = ProductProjection.of(fields, view);
+        String currentEtag = currentProductEtag(id, projection, webRequest);
+        if (currentEtag != null && webRequest.checkNotModified(currentEtag)) {
+            return notModified(catalogHttpCache.productCacheControl());
+        }
+        Product product = productService.getProductById(id, projection);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(catalogHttpCache.rememberProduct(product, projection))
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(catalogHttpCache.productCacheControl());
+        if (CatalogHttpCache.lastModified(product) != null) {
+            response.lastModified(CatalogHttpCache.lastModified(product).getTime());
+        }
+        // Spring still answers 304 here, without writing the body, when the client's copy is current
+        return response.body(projection.project(product));
+    }
+
+    // A remembered ETag answers without a read only while remote writes reach this instance; otherwise the version is read
+    private String currentProductEtag(String id, ProductProjection projection, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return null;
+        }
+        String known = catalogHttpCache.knownProductEtag(id, projection);
+        if (known != null || catalogHttpCache.invalidatesClusterWide()) {
+            return known;
+        }
+        return CatalogHttpCache.productEtag(productService.getProductVersion(id), projection);
     }
 
+    // checkNotModified has already written the ETag, the 304 only adds the caching headers
+    private static <T> ResponseEntity<T> notModified(CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).build();
+    }
 
     @PatchMapping("/edit-product/{id}")
     public ResponseEntity<String> updateProduct(@PathVariable @NotBlank  String id,
@@ -0,0 +1,22 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One entry of a batch read, in the position of its id in the request.
+ * value is left out when the id does not exist.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItem<T> {
+    private String id;
+    private boolean found;
+    private T value;
+
+    public static <T> BatchItem<T> of(String id, T value) {
+        return new BatchItem<>(id, value != null, value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkIngestReport {
+    private int received;
+    private int inserted;
+    private int failed;
+    // The counts above cover every product; items stops at maxItems entries and this says it did
+    private boolean itemsTruncated;
+    // Why reading the body stopped early, products after that point were not read
+    private String error;
+    private List<ItemResult> items = new ArrayList<>();
+    @JsonIgnore
+    private int maxItems = Integer.MAX_VALUE;
+
+    public void inserted(int index, String id) {
+        inserted++;
+        add(new ItemResult(index, id, "inserted", null));
+    }
+
+    public void failed(int index, String error) {
+        failed++;
+        add(new ItemResult(index, null, "failed", error));
+    }
+
+    private void add(ItemResult item) {
+        if (items.size() < maxItems) {
+            items.add(item);
+        } else {
+            itemsTruncated = true;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemResult {
+        // position of the product in the request body
+        private int index;
+        private String id;
+        private String status;
+        private String error;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.exception.GeneralInternalException;
+import org.springframework.http.HttpStatus;
+
+public enum CountMode {
+    EXACT,
+    // capped count, or collection metadata when nothing is filtered
+    ESTIMATED;
+
+    public static CountMode fromString(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new GeneralInternalException("countMode must only be 'exact' or 'estimated'", HttpStatus.BAD_REQUEST);
+    }
+}
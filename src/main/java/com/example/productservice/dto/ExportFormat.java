@@ -0,0 +1,59 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.exception.GeneralInternalException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+public enum ExportFormat {
+    // one product per line
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    // a single JSON array written element by element
+    JSON(MediaType.APPLICATION_JSON),
+    // the same array in Jackson's binary JSON encoding
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    // the same array as CBOR
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isBinary() {
+        return this == SMILE || this == CBOR;
+    }
+
+    public static ExportFormat fromString(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new GeneralInternalException("format must only be 'ndjson', 'json', 'smile' or 'cbor'", HttpStatus.BAD_REQUEST);
+    }
+
+    // An explicit format param wins; otherwise a binary Accept type selects its format and anything else gets ndjson
+    public static ExportFormat negotiate(String format, List<MediaType> accept) {
+        if (format != null && !format.isBlank()) {
+            return fromString(format);
+        }
+        for (MediaType mediaType : accept) {
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                continue;
+            }
+            for (ExportFormat candidate : values()) {
+                if (candidate.mediaType.isCompatibleWith(mediaType)) {
+                    return candidate;
+                }
+            }
+        }
+        return NDJSON;
+    }
+}
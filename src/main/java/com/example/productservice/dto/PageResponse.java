@@ -0,0 +1,38 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Wire format of an offset search page. Keeps the PageImpl field names clients already read and
+ * leaves out the pageable and sort blocks, which only echo the request. With totalEstimated set,
+ * totalElements and totalPages come from countMode=estimated: collection metadata, or a count
+ * stopped at the cap and so only a lower bound. last is then taken from whether the page came
+ * back full, since the total cannot tell.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageResponse<T> {
+    private List<T> content;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean last;
+    private boolean totalEstimated;
+    // only with facets=true
+    private SearchFacets facets;
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        SearchFacets facets = page instanceof SearchPage<T> search ? search.getFacets() : null;
+        boolean estimated = SearchPage.isEstimated(page);
+        boolean last = estimated ? page.getNumberOfElements() < page.getSize() : page.isLast();
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages(), last, estimated, facets);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductBatchRequestDTO {
+    public static final int MAX_IDS = 100;
+
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " ids per request")
+    private List<@NotBlank(message = "Product id cannot be empty") String> ids;
+}
@@ -0,0 +1,16 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class ProductCacheSettingsDTO {
+    private Boolean enabled;
+
+    @Positive
+    private Long maxSizeBytes;
+
+    @PositiveOrZero
+    private Long ttlSeconds;
+}
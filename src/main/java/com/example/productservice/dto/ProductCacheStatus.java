@@ -0,0 +1,18 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductCacheStatus {
+    private boolean enabled;
+    private long maxSizeBytes;
+    private long ttlSeconds;
+    private long entries;
+    private long sizeBytes;
+    private double hitRate;
+    private long evictions;
+    // change-stream, polling or off
+    private String invalidation;
+}
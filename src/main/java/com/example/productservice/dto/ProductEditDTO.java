@@ -1,20 +1,26 @@
 package com.example.productservice.dto;
 
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
+/**
+ * Sparse edit: only the non-null fields are written. When version is sent, the edit only
+ * applies if the product is still at that version.
+ */
 @Data
 public class ProductEditDTO {
-    @NotBlank(message = "Name cannot be empty")
+    @Pattern(regexp = ".*\\S.*", message = "Name cannot be empty")
     private String name;
 
     @Min(value = 0, message = "Price must be non-negative")
-    private double price;
+    private Double price;
 
     @Min(value = 0, message = "Quantity must be non-negative")
-    private int availableQuantity;
+    private Integer availableQuantity;
 
-    @NotBlank(message = "Description cannot be empty")
+    @Pattern(regexp = ".*\\S.*", message = "Description cannot be empty")
     private String description;
+
+    private Long version;
 }
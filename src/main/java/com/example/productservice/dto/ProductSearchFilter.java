@@ -0,0 +1,54 @@
+package com.example.productservice.dto;
+
+import lombok.Value;
+import lombok.With;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Normalized search filters. Two requests that select the same products compare
+ * equal, which makes this usable as a cache key.
+ */
+@Value
+@With
+public class ProductSearchFilter {
+    String keyword;
+    List<String> categories;
+    Double minPrice;
+    Double maxPrice;
+    List<String> boardSizes;
+    List<String> brands;
+
+    public static ProductSearchFilter of(String keyword, String category, Double minPrice, Double maxPrice, String boardSize, String brand) {
+        String normalizedKeyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        return new ProductSearchFilter(normalizedKeyword, splitValues(category), minPrice, maxPrice,
+                splitValues(boardSize), splitValues(brand));
+    }
+
+    public boolean isUnfiltered() {
+        return keyword == null && categories.isEmpty() && minPrice == null && maxPrice == null
+                && boardSizes.isEmpty() && brands.isEmpty();
+    }
+
+    public String signature() {
+        return "keyword=" + (keyword == null ? "" : keyword)
+                + "&category=" + String.join(",", categories)
+                + "&minPrice=" + (minPrice == null ? "" : minPrice)
+                + "&maxPrice=" + (maxPrice == null ? "" : maxPrice)
+                + "&boardSize=" + String.join(",", boardSizes)
+                + "&brand=" + String.join(",", brands);
+    }
+
+    private static List<String> splitValues(String values) {
+        if (values == null) {
+            return List.of();
+        }
+        return Arrays.stream(values.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.exception.GeneralInternalException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque search-after token. Holds the sort key and id of the last product
+ * of a page so the next page can start from there instead of skipping.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchCursor {
+    private static final String SEPARATOR = "\u0000";
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final Object lastValue;
+    private final String lastId;
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortBy, direction.name(), encodeValue(lastValue), lastId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 4 || parts[3].isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new SearchCursor(parts[0], Sort.Direction.valueOf(parts[1]), decodeValue(parts[2]), parts[3]);
+        } catch (IllegalArgumentException ex) {
+            throw new GeneralInternalException("Invalid cursor value: " + token, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // The first character tags the type so the range match compares like with like
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "n";
+        }
+        if (value instanceof Double number) {
+            return "d" + number;
+        }
+        if (value instanceof Date date) {
+            return "t" + date.getTime();
+        }
+        return "s" + value;
+    }
+
+    private static Object decodeValue(String encoded) {
+        if (encoded.isEmpty()) {
+            throw new IllegalArgumentException("Missing cursor value");
+        }
+        String value = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case 'n' -> null;
+            case 'd' -> Double.valueOf(value);
+            case 't' -> new Date(Long.parseLong(value));
+            case 's' -> value;
+            default -> throw new IllegalArgumentException("Unknown cursor value type");
+        };
+    }
+}
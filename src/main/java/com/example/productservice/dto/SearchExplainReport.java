@@ -0,0 +1,20 @@
+package com.example.productservice.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SearchExplainReport {
+    private List<String> planStages = new ArrayList<>();
+    private List<String> indexesUsed = new ArrayList<>();
+    private boolean collectionScan;
+    private boolean inMemorySort;
+    // answered from index keys alone, no document fetch
+    private boolean covered;
+    private long returned;
+    private long keysExamined;
+    private long docsExamined;
+    private long executionTimeMillis;
+}
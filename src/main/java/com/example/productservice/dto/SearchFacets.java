@@ -0,0 +1,43 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Counts per filter value for the storefront sidebar. Each dimension is counted with every
+ * filter except its own, so selecting a brand still shows how many products the other brands have.
+ * Serializable because {@link SearchPage} is, through PageImpl.
+ */
+@Data
+@AllArgsConstructor
+public class SearchFacets implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<FacetCount> categories;
+    private List<FacetCount> brands;
+    private List<FacetCount> boardSizes;
+    private List<PriceBucket> priceRanges;
+
+    @Data
+    @AllArgsConstructor
+    public static class FacetCount implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String value;
+        private long count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PriceBucket implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Double min;
+        // null for the open-ended top bucket
+        private Double max;
+        private long count;
+    }
+}
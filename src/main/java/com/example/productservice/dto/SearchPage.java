@@ -0,0 +1,37 @@
+package com.example.productservice.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * A search page with what the plain page cannot say: the facet counts for the same filters, when
+ * asked for, and whether totalElements came from an estimated count rather than an exact one.
+ */
+public class SearchPage<T> extends PageImpl<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final SearchFacets facets;
+    private final boolean totalEstimated;
+
+    public SearchPage(Page<T> page, SearchFacets facets, boolean totalEstimated) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.facets = facets;
+        this.totalEstimated = totalEstimated;
+    }
+
+    public static <T> SearchPage<T> withFacets(Page<T> page, SearchFacets facets) {
+        return new SearchPage<>(page, facets, isEstimated(page));
+    }
+
+    public static boolean isEstimated(Page<?> page) {
+        return page instanceof SearchPage<?> search && search.totalEstimated;
+    }
+
+    public SearchFacets getFacets() {
+        return facets;
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.exception.GeneralInternalException;
+import org.springframework.http.HttpStatus;
+
+public enum SearchSource {
+    LIVE,
+    // in-memory hot listing when the search is a plain category listing, live otherwise
+    SNAPSHOT;
+
+    public static SearchSource fromString(String value) {
+        for (SearchSource source : values()) {
+            if (source.name().equalsIgnoreCase(value)) {
+                return source;
+            }
+        }
+        throw new GeneralInternalException("source must only be 'live' or 'snapshot'", HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StockLevelDTO {
+    private String productId;
+    private Integer availableQuantity;
+}
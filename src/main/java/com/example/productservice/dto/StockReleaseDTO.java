@@ -0,0 +1,10 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class StockReleaseDTO {
+    @NotBlank(message = "Reservation id cannot be empty")
+    private String reservationId;
+}
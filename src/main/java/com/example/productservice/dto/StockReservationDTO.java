@@ -0,0 +1,26 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StockReservationDTO {
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid Item> items;
+
+    @Data
+    public static class Item {
+        @NotBlank(message = "Product id cannot be empty")
+        private String productId;
+
+        @NotNull
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity;
+    }
+}
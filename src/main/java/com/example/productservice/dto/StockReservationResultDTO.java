@@ -0,0 +1,16 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.entity.StockReservation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StockReservationResultDTO {
+    private String reservationId;
+    private StockReservation.Status status;
+    // stock levels after this call, only for the products it changed
+    private List<StockLevelDTO> items;
+}
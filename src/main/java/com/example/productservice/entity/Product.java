@@ -1,12 +1,19 @@
 package com.example.productservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 
 
 import java.util.ArrayList;
@@ -15,17 +22,32 @@ import java.util.Map;
 import java.util.Set;
 
 @Data
+// Fields left out by a projection are omitted rather than sent as null
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Document("products")
+// ESR: filter field, then sort field and the _id tie-breaker; each serves both directions.
+// The single-field name/brand/categoryName indexes these replace are dropped by LegacyIndexCleanup.
+@CompoundIndexes({
+        @CompoundIndex(name = "category_name", def = "{'categoryName': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_price", def = "{'categoryName': 1, 'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_createdAt", def = "{'categoryName': 1, 'createdAt': 1, '_id': 1}"),
+        @CompoundIndex(name = "brand_name", def = "{'brand': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "brand_price", def = "{'brand': 1, 'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "boardSize_price", def = "{'boardSize': 1, 'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': 1, '_id': 1}")
+})
 public class Product {
     @Id
     private String id;
 
     @NotBlank
-    @Indexed
+    @TextIndexed(weight = 10)
     private String name;
 
     @NotBlank
-    @Indexed
+    @TextIndexed(weight = 5)
     private String brand;
 
     @NotNull
@@ -36,20 +58,36 @@ public class Product {
 
     private ArrayList<String> images;
 
-    @Indexed
+    @TextIndexed(weight = 3)
     private String categoryName;
 
     private Map<String, String> attributes;
 
+    @TextIndexed
     private String description;
 
     @Indexed
+    @TextIndexed(weight = 5)
     private Set<String> tags;
 
+    // Lower-cased tokens of name, brand, category and tags, serves prefix keyword matches from the index
+    @JsonIgnore
+    @Indexed
+    private Set<String> searchTerms;
+
     private Double averageRating;
 
     private String boardSize;
 
     @CreatedDate
     private Date createdAt;
+
+    // Also moved by $set and stock updates, together with version it validates cached copies.
+    // Indexed for the product cache's polling invalidation
+    @LastModifiedDate
+    @Indexed
+    private Date updatedAt;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,45 @@
+package com.example.productservice.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stock taken by one reserve call. Releasing redeems the reservation rather than adding arbitrary
+ * quantities back, so a release can never put back more than was taken and a retried release is a no-op.
+ */
+@Document("stockReservations")
+@Data
+public class StockReservation {
+    public enum Status {
+        // written before any stock is taken, so a reservation interrupted half way is still on record
+        PENDING,
+        ACTIVE,
+        CANCELLED,
+        RELEASED
+    }
+
+    @Id
+    private String id;
+
+    // product id -> quantity taken
+    private Map<String, Integer> quantities = new LinkedHashMap<>();
+
+    // products whose quantity has already been put back
+    private Set<String> released = new LinkedHashSet<>();
+
+    private Status status;
+
+    private Date createdAt;
+
+    // Open reservations hold stock and are kept; closed ones are only history
+    @Indexed(expireAfter = "7d")
+    private Date closedAt;
+}
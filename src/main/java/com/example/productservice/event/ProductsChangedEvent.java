@@ -0,0 +1,27 @@
+package com.example.productservice.event;
+
+import java.util.Set;
+
+/**
+ * Published after products are written so caches derived from the catalog can drop stale state.
+ * stockOnly marks writes that only moved availableQuantity, which leaves search matches and counts intact.
+ * everything marks changes that cannot be pinned to ids, such as a dropped collection; productIds is then empty.
+ */
+public record ProductsChangedEvent(Set<String> productIds, boolean stockOnly, boolean everything) {
+
+    public static ProductsChangedEvent of(String productId) {
+        return new ProductsChangedEvent(Set.of(productId), false, false);
+    }
+
+    public static ProductsChangedEvent of(Set<String> productIds) {
+        return new ProductsChangedEvent(Set.copyOf(productIds), false, false);
+    }
+
+    public static ProductsChangedEvent stockChanged(Set<String> productIds) {
+        return new ProductsChangedEvent(Set.copyOf(productIds), true, false);
+    }
+
+    public static ProductsChangedEvent all() {
+        return new ProductsChangedEvent(Set.of(), false, true);
+    }
+}
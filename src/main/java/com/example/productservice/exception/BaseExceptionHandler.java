@@ -3,6 +3,7 @@ package com.example.productservice.exception;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -25,12 +26,17 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@Profile("!reactive")
 @Slf4j
 public class BaseExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler({Throwable.class})
     public ProblemDetail handleRuntimeException(Throwable exception) {
         logger.error("Unexpected exception", exception);
+        return unexpectedProblemDetail();
+    }
+
+    public static ProblemDetail unexpectedProblemDetail() {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "something went wrong");
         problemDetail.setTitle("Something went wrong, please try again latter");
         problemDetail.setType(URI.create("http://localhost:8080/errors/internalServerError"));
@@ -40,8 +46,17 @@ public class BaseExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler({GeneralInternalException.class})
     public ProblemDetail handleGeneralInternalException(GeneralInternalException exception) {
+        if (exception.getHttpStatus().is4xxClientError()) {
+            log.debug("Client error: {}", exception.getMessage());
+        } else {
+            logger.error(exception.getMessage(), exception);
+        }
+        return problemDetail(exception);
+    }
+
+    // Also used by the reactive stack so both render errors the same way
+    public static ProblemDetail problemDetail(GeneralInternalException exception) {
         HttpStatus status = exception.getHttpStatus();
-        logger.error(exception.getMessage(), exception);
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(status, exception.getMessage());
         problemDetail.setTitle(getTitle(status));
         problemDetail.setType(URI.create(getUri(status)));
@@ -79,7 +94,7 @@ public class BaseExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(ConstraintViolationException.class)
     public ProblemDetail handleConstraintViolation(
             ConstraintViolationException ex) {
-        log.error(ex.getMessage(), ex);
+        log.debug("Invalid request: {}", ex.getMessage());
         List<Map<String, String>> invalidVariables = ex.getConstraintViolations().stream()
                 .map(violation -> Map.of(
                         "field", violation.getPropertyPath().toString(),
@@ -97,20 +112,24 @@ public class BaseExceptionHandler extends ResponseEntityExceptionHandler {
     }
 
 
-    public String getUri(HttpStatus status) {
+    public static String getUri(HttpStatus status) {
         return switch (status) {
             case INTERNAL_SERVER_ERROR -> "http://localhost:8080/errors/internalServerError";
             case BAD_REQUEST -> "http://localhost:8080/errors/badRequest";
             case NOT_FOUND -> "http://localhost:8080/errors/notFound";
+            case CONFLICT -> "http://localhost:8080/errors/conflict";
+            case SERVICE_UNAVAILABLE -> "http://localhost:8080/errors/serviceUnavailable";
             default -> throw new IllegalStateException("Unexpected value: " + status);
         };
     }
 
-    public String getTitle(HttpStatus status) {
+    public static String getTitle(HttpStatus status) {
         return switch (status) {
             case INTERNAL_SERVER_ERROR -> "Internal server error";
             case BAD_REQUEST -> "Invalid request";
             case NOT_FOUND -> "Not found";
+            case CONFLICT -> "Conflict";
+            case SERVICE_UNAVAILABLE -> "Service unavailable";
             default -> throw new IllegalStateException("Unexpected value: " + status);
         };
     }
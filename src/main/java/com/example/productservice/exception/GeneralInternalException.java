@@ -8,8 +8,15 @@ import org.springframework.http.HttpStatus;
 public class GeneralInternalException extends RuntimeException {
 
     private final HttpStatus httpStatus;
+
+    // Client errors are expected and frequent, so they skip the cost of capturing a stack trace
     public GeneralInternalException(String message, HttpStatus status) {
-        super(message);
+        super(message, null, true, !status.is4xxClientError());
+        httpStatus = status;
+    }
+
+    public GeneralInternalException(String message, HttpStatus status, Throwable cause) {
+        super(message, cause, true, !status.is4xxClientError());
         httpStatus = status;
     }
 
@@ -0,0 +1,70 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.exception.BaseExceptionHandler;
+import com.example.productservice.exception.GeneralInternalException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Renders errors from the reactive endpoints as the same problem details BaseExceptionHandler
+ * produces on the servlet stack. Ordered ahead of Boot's default error handler.
+ */
+@Component
+@Profile("reactive")
+@Order(-2)
+@Slf4j
+public class ReactiveExceptionHandler implements WebExceptionHandler {
+    private final ObjectMapper objectMapper;
+
+    public ReactiveExceptionHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        ProblemDetail problemDetail;
+        if (ex instanceof GeneralInternalException exception) {
+            if (exception.getHttpStatus().is4xxClientError()) {
+                log.debug("Client error: {}", exception.getMessage());
+            } else {
+                log.error(exception.getMessage(), exception);
+            }
+            problemDetail = BaseExceptionHandler.problemDetail(exception);
+        } else if (ex instanceof ResponseStatusException exception) {
+            problemDetail = exception.getBody();
+            problemDetail.setProperty("timestamp", Instant.now());
+        } else {
+            log.error("Unexpected exception", ex);
+            problemDetail = BaseExceptionHandler.unexpectedProblemDetail();
+        }
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(problemDetail);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(problemDetail.getStatus()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.ExportFormat;
+import com.example.productservice.dto.PageResponse;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import com.example.productservice.service.ProductProjection;
+import com.example.productservice.service.ProductSearchQueries;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional handlers for the reactive read endpoints. Parameters mirror ProductController,
+ * which means validation that the servlet stack gets from annotations is done by hand here.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveProductHandler {
+    private final ReactiveProductService productService;
+
+    public ReactiveProductHandler(ReactiveProductService productService) {
+        this.productService = productService;
+    }
+
+    public Mono<ServerResponse> search(ServerRequest request) {
+        return Mono.defer(() -> {
+            ProductSearchFilter filter = ProductSearchFilter.of(
+                    param(request, "keyword", null),
+                    param(request, "category", ""),
+                    doubleParam(request, "minPrice"),
+                    doubleParam(request, "maxPrice"),
+                    param(request, "boardSize", ""),
+                    param(request, "brand", ""));
+            String sortBy = param(request, "sortBy", "name");
+            String sortDirection = param(request, "sortDirection", "asc");
+            ProductProjection projection = ProductProjection.of(param(request, "fields", null), param(request, "view", null));
+            int size = intParam(request, "size", 10, 1);
+
+            // Keyset mode: selected whenever a cursor param is present, as on the servlet stack
+            if (request.queryParam("cursor").isPresent()) {
+                Mono<CursorPage<Product>> products = productService.searchProductsAfter(filter, sortBy, sortDirection,
+                        projection, param(request, "cursor", ""), size);
+                return ServerResponse.ok().body(products, new ParameterizedTypeReference<>() {});
+            }
+
+            int page = intParam(request, "page", 0, 0);
+            ProductSearchQueries.validateSort(sortBy, sortDirection);
+            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
+            Mono<PageResponse<Product>> products = productService.searchProducts(filter, sortBy, sortDirection,
+                    CountMode.fromString(param(request, "countMode", "exact")), projection,
+                    Boolean.parseBoolean(param(request, "facets", "false")), pageable).map(PageResponse::of);
+            return ServerResponse.ok().body(products, new ParameterizedTypeReference<>() {});
+        });
+    }
+
+    public Mono<ServerResponse> export(ServerRequest request) {
+        return Mono.defer(() -> {
+            ExportFormat format = ExportFormat.fromString(param(request, "format", "ndjson"));
+            if (format.isBinary()) {
+                throw new GeneralInternalException("format must only be 'ndjson' or 'json' on this API", HttpStatus.BAD_REQUEST);
+            }
+            ProductProjection projection = ProductProjection.of(param(request, "fields", null), param(request, "view", null));
+            return ServerResponse.ok()
+                    .contentType(format.getMediaType())
+                    .body(productService.exportProducts(projection), Product.class);
+        });
+    }
+
+    public Mono<ServerResponse> getAvailableQuantity(ServerRequest request) {
+        return ServerResponse.ok().body(productService.getAvailableQuantity(request.pathVariable("productId")), Integer.class);
+    }
+
+    public Mono<ServerResponse> getProduct(ServerRequest request) {
+        return Mono.defer(() -> {
+            ProductProjection projection = ProductProjection.of(param(request, "fields", null), param(request, "view", null));
+            return ServerResponse.ok().body(productService.getProductById(request.pathVariable("id"), projection), Product.class);
+        });
+    }
+
+    private static String param(ServerRequest request, String name, String defaultValue) {
+        return request.queryParam(name).orElse(defaultValue);
+    }
+
+    private static Double doubleParam(ServerRequest request, String name) {
+        String value = param(request, name, null);
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new GeneralInternalException("Invalid value for " + name + ": " + value, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue, int min) {
+        String value = param(request, name, null);
+        try {
+            int parsed = value == null ? defaultValue : Integer.parseInt(value);
+            if (parsed < min) {
+                throw new GeneralInternalException(name + " must be at least " + min, HttpStatus.BAD_REQUEST);
+            }
+            return parsed;
+        } catch (NumberFormatException ex) {
+            throw new GeneralInternalException("Invalid value for " + name + ": " + value, HttpStatus.BAD_REQUEST);
+        }
+    }
+}
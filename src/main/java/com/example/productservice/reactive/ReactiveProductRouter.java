@@ -0,0 +1,25 @@
+package com.example.productservice.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveProductRouter {
+
+    // Same paths as ProductController; /search is registered before /{id} so it is not taken for an id
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(ReactiveProductHandler handler) {
+        return RouterFunctions.route()
+                .path("/api/products", builder -> builder
+                        .GET("/search", handler::search)
+                        .GET("/export", handler::export)
+                        .GET("/get-quantity/{productId}", handler::getAvailableQuantity)
+                        .GET("/{id}", handler::getProduct))
+                .build();
+    }
+}
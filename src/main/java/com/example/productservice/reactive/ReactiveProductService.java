@@ -0,0 +1,161 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.cache.SearchCountCache;
+import com.example.productservice.cache.SearchFacetCache;
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchFacets;
+import com.example.productservice.dto.SearchPage;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import com.example.productservice.service.MongoReadRouting;
+import com.example.productservice.service.ProductProjection;
+import com.example.productservice.service.ProductSearchQueries;
+import com.example.productservice.service.SearchFacetService;
+import com.example.productservice.service.SearchMetrics;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Non-blocking counterpart of the read side of ProductService. Queries, validation and
+ * caches are shared with the servlet stack; only the driver calls differ.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductService {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final SearchCountCache searchCountCache;
+    private final SearchFacetCache searchFacetCache;
+    private final SearchFacetService searchFacetService;
+    private final SearchMetrics searchMetrics;
+    private final MongoReadRouting readRouting;
+    private final int cursorBatchSize;
+
+    public ReactiveProductService(ReactiveMongoTemplate mongoTemplate,
+                                  SearchCountCache searchCountCache, SearchFacetCache searchFacetCache,
+                                  SearchFacetService searchFacetService, SearchMetrics searchMetrics,
+                                  MongoReadRouting readRouting,
+                                  @Value("${product-service.export.cursor-batch-size:500}") int cursorBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchCountCache = searchCountCache;
+        this.searchFacetCache = searchFacetCache;
+        this.searchFacetService = searchFacetService;
+        this.searchMetrics = searchMetrics;
+        this.readRouting = readRouting;
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    public Mono<Page<Product>> searchProducts(ProductSearchFilter filter, String sortBy, String sortDirection, CountMode countMode,
+                                              ProductProjection projection, boolean includeFacets, Pageable pageable) {
+        return Mono.defer(() -> {
+            ProductSearchQueries.validateSearch(filter, sortBy, sortDirection);
+            Mono<Page<Product>> page = mongoTemplate
+                    .aggregate(MongoReadRouting.withReadPreference(ProductSearchQueries.pagedAggregation(filter, projection, pageable),
+                            readRouting.forSearch()), Product.class, Product.class)
+                    .collectList()
+                    .doOnNext(products -> searchMetrics.record(filter, "offset", products.size()))
+                    .flatMap(products -> toPage(products, pageable, filter, countMode));
+            if (!includeFacets) {
+                return page;
+            }
+            return page.zipWith(facets(filter), (result, facets) -> SearchPage.withFacets(result, facets));
+        }).onErrorMap(DataAccessException.class, ex -> new GeneralInternalException("Some database error while searching products"));
+    }
+
+    public Mono<CursorPage<Product>> searchProductsAfter(ProductSearchFilter filter, String sortBy, String sortDirection,
+                                                         ProductProjection projection, String cursor, int size) {
+        return Mono.defer(() -> mongoTemplate
+                        .aggregate(MongoReadRouting.withReadPreference(
+                                ProductSearchQueries.cursorAggregation(filter, sortBy, sortDirection, projection, cursor, size),
+                                readRouting.forSearch()), Product.class, Product.class)
+                        .collectList()
+                        .map(products -> ProductSearchQueries.cursorPage(products, sortBy, sortDirection, projection, size))
+                        .doOnNext(page -> searchMetrics.record(filter, "cursor", page.getContent().size())))
+                .onErrorMap(DataAccessException.class, ex -> new GeneralInternalException("Some database error while searching products"));
+    }
+
+    public Mono<Product> getProductById(String id, ProductProjection projection) {
+        Query query = projection.applyTo(Query.query(Criteria.where("_id").is(id)))
+                .withReadPreference(readRouting.forProducts());
+        return mongoTemplate.findOne(query, Product.class)
+                .switchIfEmpty(Mono.error(() -> new GeneralInternalException("id does not exist", HttpStatus.NOT_FOUND)))
+                .onErrorMap(DataAccessException.class, ex -> new GeneralInternalException("Some database error while getting product with id: " + id));
+    }
+
+    // Demand from the response drives the cursor, a slow client simply stops requesting batches
+    public Flux<Product> exportProducts(ProductProjection projection) {
+        Query query = projection.applyTo(new Query().cursorBatchSize(cursorBatchSize))
+                .withReadPreference(readRouting.forExport());
+        return mongoTemplate.find(query, Product.class)
+                .onErrorMap(DataAccessException.class, ex -> new GeneralInternalException("Some database error while exporting products"));
+    }
+
+    public Mono<Integer> getAvailableQuantity(String productId) {
+        Query query = Query.query(Criteria.where("_id").is(productId));
+        query.fields().include("availableQuantity");
+        return mongoTemplate.findOne(query, Product.class)
+                .map(Product::getAvailableQuantity)
+                .switchIfEmpty(Mono.error(() -> new GeneralInternalException("Cannot get quantity as product id: " + productId + "does not exist",
+                        HttpStatus.NOT_FOUND)))
+                .onErrorMap(DataAccessException.class, ex -> new GeneralInternalException("Some database error while trying to get quantity from product id: " + productId));
+    }
+
+    // Same shortcut as PageableExecutionUtils: a partial page already tells us the total
+    private Mono<Page<Product>> toPage(List<Product> products, Pageable pageable, ProductSearchFilter filter, CountMode countMode) {
+        if (products.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !products.isEmpty())) {
+            return Mono.just(new PageImpl<>(products, pageable, pageable.getOffset() + products.size()));
+        }
+        return countMatches(filter, countMode).map(total -> new SearchPage<>(new PageImpl<>(products, pageable, total), null,
+                searchCountCache.isEstimate(filter, countMode, total)));
+    }
+
+    private Mono<Long> countMatches(ProductSearchFilter filter, CountMode countMode) {
+        OptionalLong cached = searchCountCache.getIfPresent(filter, countMode);
+        if (cached.isPresent()) {
+            return Mono.just(cached.getAsLong());
+        }
+        long loadGeneration = searchCountCache.generation();
+        Mono<Long> count;
+        if (countMode == CountMode.EXACT) {
+            count = mongoTemplate.count(ProductSearchQueries.query(filter).withReadPreference(readRouting.forSearch()), Product.class);
+        } else if (filter.isUnfiltered()) {
+            count = mongoTemplate.estimatedCount(Product.class);
+        } else {
+            count = mongoTemplate.count(ProductSearchQueries.query(filter).limit(searchCountCache.getEstimatedCountCap())
+                    .withReadPreference(readRouting.forSearch()), Product.class);
+        }
+        return count.doOnNext(total -> searchCountCache.put(filter, countMode, total, loadGeneration));
+    }
+
+    private Mono<SearchFacets> facets(ProductSearchFilter filter) {
+        Optional<SearchFacets> cached = searchFacetCache.getIfPresent(filter);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+        long loadGeneration = searchFacetCache.generation();
+        Aggregation aggregation = MongoReadRouting.withReadPreference(searchFacetService.facetAggregation(filter), readRouting.forSearch());
+        return mongoTemplate.aggregate(aggregation, Product.class, Document.class)
+                .next()
+                .defaultIfEmpty(new Document())
+                .map(searchFacetService::toFacets)
+                .doOnNext(facets -> searchFacetCache.put(filter, facets, loadGeneration));
+    }
+}
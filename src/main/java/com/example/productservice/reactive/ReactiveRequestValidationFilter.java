@@ -0,0 +1,40 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.config.JwtAuthenticator;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the servlet RequestValidationFilter: authenticates the exchange from
+ * the accessToken cookie. Verified tokens are cached, so the event loop only pays for the HMAC
+ * check once per token.
+ */
+public class ReactiveRequestValidationFilter implements WebFilter {
+    private final JwtAuthenticator authenticator;
+
+    public ReactiveRequestValidationFilter(JwtAuthenticator authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst(JwtAuthenticator.COOKIE_NAME);
+        if (cookie == null) {
+            return chain.filter(exchange);
+        }
+        Authentication authentication;
+        try {
+            authentication = authenticator.authenticate(cookie.getValue());
+        } catch (Exception e) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+}
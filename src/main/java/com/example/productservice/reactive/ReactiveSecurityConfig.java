@@ -0,0 +1,65 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.config.JwtAuthenticator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Security for the reactive profile. Only the public read endpoints and actuator are served here;
+ * writes and admin endpoints stay on the servlet stack. Tokens are read from the accessToken cookie
+ * as on the servlet stack.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, MeterRegistry meterRegistry,
+                                                         @Value("${product-service.jwt-cache.max-entries:10000}") int jwtCacheMaxEntries) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                // Stateless like the servlet chain, the cookie is checked on every exchange
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(new ReactiveRequestValidationFilter(new JwtAuthenticator(meterRegistry, jwtCacheMaxEntries)),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers("/actuator/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/products/search").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/products/export").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/products/get-quantity/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/products/{id}").permitAll()
+                        .anyExchange().authenticated())
+                .exceptionHandling(handling -> handling
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .build();
+    }
+
+    @Bean
+    public WebFluxConfigurer corsConfigurer() {
+        return new WebFluxConfigurer() {
+            @Override
+            public void addCorsMappings(CorsRegistry registry) {
+                registry.addMapping("/**")
+                        .allowedOriginPatterns("http://localhost:3001/")
+                        .allowedMethods("GET", "OPTIONS")
+                        .allowCredentials(true);
+            }
+        };
+    }
+}
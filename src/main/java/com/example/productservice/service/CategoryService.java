@@ -1,5 +1,6 @@
 package com.example.productservice.service;
 
+import com.example.productservice.cache.CategoryCache;
 import com.example.productservice.entity.Category;
 import com.example.productservice.exception.GeneralInternalException;
 import com.example.productservice.repository.CategoryRepository;
@@ -15,16 +16,23 @@ import java.util.List;
 
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final MongoConcurrencyLimiter mongoLimiter;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryCache categoryCache,
+                           MongoConcurrencyLimiter mongoLimiter) {
         this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.mongoLimiter = mongoLimiter;
     }
 
     public Category addCategory(Category category) {
         String categoryName = category.getName().toLowerCase();
         category.setName(categoryName);        
         try {
-            return categoryRepository.save(category);
+            Category saved = mongoLimiter.call(() -> categoryRepository.save(category));
+            categoryCache.put(saved);
+            return saved;
         } catch (DuplicateKeyException ex) {
             throw new GeneralInternalException("Duplicate name (category)", HttpStatus.BAD_REQUEST);
         } catch (DataAccessException ex) {
@@ -33,13 +41,13 @@ public class CategoryService {
     }
 
     public Category getCategoryByName(String categoryName) {
-        return categoryRepository.findByName(categoryName).orElseThrow(() -> new GeneralInternalException("Category name not found", HttpStatus.NOT_FOUND));
+        return categoryCache.get(categoryName).orElseThrow(() -> new GeneralInternalException("Category name not found", HttpStatus.NOT_FOUND));
     }
 
 
     public List<Category> getAllProducts() {
         try {
-            return categoryRepository.findAll();
+            return categoryCache.all();
         } catch (DataAccessException ex) {
             throw new GeneralInternalException("Some database error while fetching all products");
         }
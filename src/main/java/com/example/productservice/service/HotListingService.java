@@ -0,0 +1,266 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.exception.GeneralInternalException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory first pages of plain category listings: one category, no other filter, sorted by
+ * one of a few fields. The busiest listings are served without touching Mongo. A write marks
+ * listings stale at once; a background refresh then rebuilds the ones the changed products
+ * belong to and returns the rest to service.
+ */
+@Service
+@Slf4j
+// The reactive profile serves its listings straight from Mongo
+@Profile("!reactive")
+public class HotListingService {
+    // Beyond this many changed ids a lookup is not worth it, every stale listing is rebuilt
+    private static final int MAX_LOOKUP_IDS = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoConcurrencyLimiter mongoLimiter;
+    private final ReadCoalescer readCoalescer;
+    private final Set<String> sortFields;
+    private final int depth;
+    private final int maxListings;
+    private final long ttlMillis;
+    private final ExecutorService refresher;
+    private final Map<ListingKey, Listing> listings = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rebuilds;
+
+    @Autowired
+    public HotListingService(MongoTemplate mongoTemplate, MongoConcurrencyLimiter mongoLimiter, ReadCoalescer readCoalescer,
+                             MeterRegistry meterRegistry,
+                             @Value("${product-service.hot-listings.sort-fields:price,name}") List<String> sortFields,
+                             @Value("${product-service.hot-listings.depth:60}") int depth,
+                             @Value("${product-service.hot-listings.max-listings:200}") int maxListings,
+                             @Value("${product-service.hot-listings.ttl:60s}") Duration ttl) {
+        this(mongoTemplate, mongoLimiter, readCoalescer, meterRegistry, sortFields, depth, maxListings, ttl,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "hot-listing-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    HotListingService(MongoTemplate mongoTemplate, MongoConcurrencyLimiter mongoLimiter, ReadCoalescer readCoalescer,
+                      MeterRegistry meterRegistry, List<String> sortFields, int depth, int maxListings, Duration ttl, ExecutorService refresher) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoLimiter = mongoLimiter;
+        this.readCoalescer = readCoalescer;
+        this.sortFields = Set.copyOf(sortFields);
+        this.depth = depth;
+        this.maxListings = maxListings;
+        this.ttlMillis = ttl.toMillis();
+        this.refresher = refresher;
+        this.hits = meterRegistry.counter("hot.listing.requests", "result", "hit");
+        this.misses = meterRegistry.counter("hot.listing.requests", "result", "miss");
+        this.rebuilds = meterRegistry.counter("hot.listing.rebuilds");
+        Gauge.builder("hot.listing.size", listings, Map::size).register(meterRegistry);
+    }
+
+    // Empty when the search is not a plain category listing within the snapshot depth
+    public Optional<Page<Product>> page(ProductSearchFilter filter, String sortBy, String sortDirection,
+                                        ProductProjection projection, Pageable pageable) {
+        if (!isListing(filter, sortBy) || pageable.getOffset() + pageable.getPageSize() > depth) {
+            return Optional.empty();
+        }
+        ListingKey key = new ListingKey(filter.getCategories().get(0), sortBy, Sort.Direction.fromString(sortDirection), projection);
+        Listing listing = listings.get(key);
+        if (listing == null || listing.isStale() || listing.builtAt + ttlMillis <= System.currentTimeMillis()) {
+            misses.increment();
+            listing = rebuild(key);
+        } else {
+            hits.increment();
+        }
+        listing.lastAccess = System.currentTimeMillis();
+        return Optional.of(listing.page(pageable));
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        long changeGeneration = generation.incrementAndGet();
+        boolean marked = false;
+        for (Listing listing : listings.values()) {
+            // Stock changes leave membership and order alone, only listings showing the products are affected
+            if (!event.stockOnly() || listing.containsAny(event.productIds())) {
+                listing.staleSince.set(changeGeneration);
+                marked = true;
+            }
+        }
+        if (marked) {
+            pendingIds.addAll(event.productIds());
+            if (refreshScheduled.compareAndSet(false, true)) {
+                refresher.execute(this::refresh);
+            }
+        }
+    }
+
+    void refresh() {
+        refreshScheduled.set(false);
+        Set<String> ids = new HashSet<>(pendingIds);
+        pendingIds.removeAll(ids);
+        Set<String> categories = categoriesOf(ids);
+        for (Map.Entry<ListingKey, Listing> entry : listings.entrySet()) {
+            Listing listing = entry.getValue();
+            long staleSince = listing.staleSince.get();
+            if (staleSince == 0) {
+                continue;
+            }
+            if (categories == null || categories.contains(entry.getKey().category()) || listing.containsAny(ids)) {
+                try {
+                    rebuild(entry.getKey());
+                } catch (RuntimeException ex) {
+                    log.warn("Could not rebuild hot listing {}, dropping it", entry.getKey(), ex);
+                    listings.remove(entry.getKey(), listing);
+                }
+            } else {
+                // Fails if another write marked it again meanwhile, the next refresh looks at that one
+                listing.staleSince.compareAndSet(staleSince, 0);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private boolean isListing(ProductSearchFilter filter, String sortBy) {
+        return filter.getKeyword() == null && filter.getCategories().size() == 1
+                && filter.getMinPrice() == null && filter.getMaxPrice() == null
+                && filter.getBoardSizes().isEmpty() && filter.getBrands().isEmpty()
+                && sortFields.contains(sortBy);
+    }
+
+    // Requests that find the same listing expired or stale, and the refresher, share one build instead of each running it
+    private Listing rebuild(ListingKey key) {
+        return readCoalescer.execute("hot-listing", key, () -> build(key));
+    }
+
+    // Rebuilds follow writes, so they read from the primary rather than a secondary that may not have the write yet
+    private Listing build(ListingKey key) {
+        long loadGeneration = generation.get();
+        ProductSearchFilter filter = ProductSearchFilter.of(null, key.category(), null, null, "", "");
+        Pageable snapshot = PageRequest.of(0, depth, Sort.by(key.direction(), key.sortBy()));
+        try {
+            List<Product> products = mongoLimiter.call(() -> mongoTemplate.aggregate(
+                    ProductSearchQueries.pagedAggregation(filter, key.projection(), snapshot), Product.class, Product.class)
+                    .getMappedResults());
+            long total = products.size() < depth ? products.size()
+                    : mongoLimiter.call(() -> mongoTemplate.count(ProductSearchQueries.query(filter), Product.class));
+            Listing listing = new Listing(products, total);
+            rebuilds.increment();
+
+            if (!listings.containsKey(key) && listings.size() >= maxListings) {
+                evictLeastRecentlyUsed();
+            }
+            listings.put(key, listing);
+            // A write that raced with the build may already have been applied to the old listing
+            if (generation.get() != loadGeneration) {
+                listing.staleSince.compareAndSet(0, generation.get());
+            }
+            return listing;
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while building product listing");
+        }
+    }
+
+    // null when the changed products cannot all be found, e.g. after a delete; then every listing is suspect
+    private Set<String> categoriesOf(Set<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+            return null;
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("categoryName");
+        try {
+            List<Product> products = mongoLimiter.call(() -> mongoTemplate.find(query, Product.class));
+            if (products.size() < ids.size()) {
+                return null;
+            }
+            return products.stream().map(Product::getCategoryName).collect(Collectors.toSet());
+        } catch (RuntimeException ex) {
+            log.warn("Could not look up changed products, rebuilding every stale listing", ex);
+            return null;
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        listings.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                .ifPresent(entry -> listings.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private record ListingKey(String category, String sortBy, Sort.Direction direction, ProductProjection projection) {
+    }
+
+    private static final class Listing {
+        private final List<Product> products;
+        private final long total;
+        private final Set<String> ids;
+        private final long builtAt = System.currentTimeMillis();
+        // Generation of the write that made this listing stale, 0 while it is current
+        private final AtomicLong staleSince = new AtomicLong();
+        private volatile long lastAccess = builtAt;
+
+        private Listing(List<Product> products, long total) {
+            this.products = products;
+            this.total = total;
+            this.ids = products.stream().map(Product::getId).collect(Collectors.toUnmodifiableSet());
+        }
+
+        private boolean isStale() {
+            return staleSince.get() != 0;
+        }
+
+        private boolean containsAny(Set<String> productIds) {
+            return productIds.stream().anyMatch(ids::contains);
+        }
+
+        private Page<Product> page(Pageable pageable) {
+            int from = (int) Math.min(pageable.getOffset(), products.size());
+            int to = Math.min(from + pageable.getPageSize(), products.size());
+            return new PageImpl<>(products.subList(from, to), pageable, total);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Drops the single-field name/brand/categoryName indexes that {@code @Indexed} created before the
+ * compound indexes replaced them. Index creation only ever adds indexes, so without this they stay
+ * on existing collections and cost every write. Each one goes only once the compound index whose
+ * prefix takes over its queries exists.
+ */
+@Component
+@Slf4j
+// Left to the servlet deployment, which owns the product writes
+@Profile("!reactive")
+public class LegacyIndexCleanup {
+    // Legacy index name (also its only key) -> compound index that covers the same prefix
+    static final Map<String, String> REPLACED_BY = Map.of(
+            "name", "name_id",
+            "brand", "brand_name",
+            "categoryName", "category_name");
+
+    private final MongoTemplate mongoTemplate;
+
+    public LegacyIndexCleanup(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropLegacyIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+            List<IndexInfo> indexes = indexOps.getIndexInfo();
+            for (String name : legacyIndexes(indexes)) {
+                indexOps.dropIndex(name);
+                log.info("Dropped legacy product index {}, replaced by {}", name, REPLACED_BY.get(name));
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not drop legacy product indexes", ex);
+        }
+    }
+
+    static List<String> legacyIndexes(List<IndexInfo> indexes) {
+        Set<String> names = indexes.stream().map(IndexInfo::getName).collect(Collectors.toSet());
+        return indexes.stream()
+                .filter(index -> REPLACED_BY.containsKey(index.getName()))
+                .filter(index -> index.getIndexFields().size() == 1
+                        && index.getIndexFields().get(0).getKey().equals(index.getName()))
+                .filter(index -> names.contains(REPLACED_BY.get(index.getName())))
+                .map(IndexInfo::getName)
+                .sorted()
+                .toList();
+    }
+}
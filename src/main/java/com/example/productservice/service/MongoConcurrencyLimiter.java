@@ -0,0 +1,83 @@
+package com.example.productservice.service;
+
+import com.example.productservice.exception.GeneralInternalException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many requests talk to Mongo at once. With virtual threads nothing else bounds
+ * concurrency, so without this every request would queue on the driver's connection pool
+ * until it timed out; here a request waits briefly for a permit and otherwise fails with 503.
+ */
+@Component
+public class MongoConcurrencyLimiter {
+    // Nested calls on the same thread reuse the permit they already hold instead of deadlocking
+    private final ThreadLocal<Boolean> holdsPermit = ThreadLocal.withInitial(() -> false);
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public MongoConcurrencyLimiter(MeterRegistry meterRegistry,
+                                   @Value("${product-service.mongo.max-concurrent:100}") int maxConcurrent,
+                                   @Value("${product-service.mongo.max-wait:100ms}") Duration maxWait) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.waitTimer = meterRegistry.timer("mongo.limiter.wait");
+        this.rejected = meterRegistry.counter("mongo.limiter.rejected");
+        Gauge.builder("mongo.limiter.in-flight", permits, p -> maxConcurrent - p.availablePermits()).register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> action) {
+        if (holdsPermit.get()) {
+            return action.get();
+        }
+        acquire();
+        holdsPermit.set(true);
+        try {
+            return action.get();
+        } finally {
+            holdsPermit.set(false);
+            permits.release();
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+            throw new GeneralInternalException("Too many concurrent requests, please retry", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.productservice.service;
+
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the read preference per operation. Search and export tolerate replication lag and go to
+ * secondaries. Reads of products by id, and stock reads, stay on the primary, whichever instance
+ * took the write, so a client always sees its own edit on the next request. Admins read everything
+ * from the primary.
+ */
+@Component
+public class MongoReadRouting {
+    private static final String ADMIN_AUTHORITY = "Admin";
+
+    private final ReadPreference searchPreference;
+    private final ReadPreference exportPreference;
+
+    public MongoReadRouting(@Value("${product-service.mongo.read.search:secondaryPreferred}") String search,
+                            @Value("${product-service.mongo.read.export:secondaryPreferred}") String export,
+                            @Value("${product-service.mongo.read.max-staleness:90s}") Duration maxStaleness) {
+        this.searchPreference = readPreference(search, maxStaleness);
+        this.exportPreference = readPreference(export, maxStaleness);
+    }
+
+    public ReadPreference forSearch() {
+        return isAdmin() ? ReadPreference.primary() : searchPreference;
+    }
+
+    public ReadPreference forExport() {
+        return isAdmin() ? ReadPreference.primary() : exportPreference;
+    }
+
+    // A single id is cheap on any member, and only the primary is sure to have a write made through another instance
+    public ReadPreference forProducts() {
+        return ReadPreference.primary();
+    }
+
+    public static Aggregation withReadPreference(Aggregation aggregation, ReadPreference readPreference) {
+        return aggregation.withOptions(AggregationOptions.builder().readPreference(readPreference).build());
+    }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+    }
+
+    // The driver rejects a staleness bound on the primary, and below 90 seconds on any mode
+    private static ReadPreference readPreference(String mode, Duration maxStaleness) {
+        ReadPreference readPreference = ReadPreference.valueOf(mode);
+        if (readPreference.equals(ReadPreference.primary()) || maxStaleness.isZero()) {
+            return readPreference;
+        }
+        return ReadPreference.valueOf(mode, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+    }
+}
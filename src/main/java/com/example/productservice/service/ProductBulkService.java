@@ -0,0 +1,258 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.BulkIngestReport;
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.exception.GeneralInternalException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a product feed from the request body and inserts it in unordered bulk batches.
+ * Each item is validated on its own, so one bad product does not reject the whole feed.
+ */
+@Service
+public class ProductBulkService {
+    private final CategoryService categoryService;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportItems;
+
+    public ProductBulkService(CategoryService categoryService, MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                              Validator validator, ApplicationEventPublisher eventPublisher,
+                              @Value("${product-service.bulk.batch-size:1000}") int batchSize,
+                              @Value("${product-service.bulk.max-report-items:1000}") int maxReportItems) {
+        this.categoryService = categoryService;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportItems = maxReportItems;
+    }
+
+    /**
+     * Items that are not objects are reported as failed and skipped. Once the body stops being one
+     * well-formed array, reading stops there: the products before that point are still inserted and
+     * the report comes back with the parse error attached.
+     */
+    public BulkIngestReport ingestJsonArray(InputStream body, String defaultCategory) throws IOException {
+        Ingestion ingestion = new Ingestion(defaultCategory);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new GeneralInternalException("Request body must be a JSON array of products", HttpStatus.BAD_REQUEST);
+            }
+            int index = 0;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        return ingestion.malformed(index, "the array is not closed");
+                    }
+                    if (token == JsonToken.START_OBJECT) {
+                        // Reading a tree first keeps the parser in step even when the item does not bind to Product
+                        ingestion.accept(index++, objectMapper.readTree(parser));
+                    } else {
+                        parser.skipChildren();
+                        ingestion.rejected(index++, "Item must be a JSON object");
+                    }
+                }
+                if (parser.nextToken() != null) {
+                    return ingestion.malformed(index, "unexpected content after the array");
+                }
+            } catch (JsonProcessingException ex) {
+                return ingestion.malformed(index, ex.getOriginalMessage());
+            }
+        }
+        return ingestion.finish();
+    }
+
+    public BulkIngestReport ingestNdjson(InputStream body, String defaultCategory) throws IOException {
+        Ingestion ingestion = new Ingestion(defaultCategory);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ingestion.accept(index, objectMapper.readTree(line));
+            } catch (JsonProcessingException ex) {
+                ingestion.report.setReceived(ingestion.report.getReceived() + 1);
+                ingestion.report.failed(index, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+            index++;
+        }
+        return ingestion.finish();
+    }
+
+    private class Ingestion {
+        private final BulkIngestReport report = new BulkIngestReport();
+        private final String defaultCategory;
+        // Unknown categories are remembered too, so a feed full of them does not hit the database per item
+        private final Map<String, Optional<Category>> categories = new HashMap<>();
+        private final List<Integer> pendingIndexes = new ArrayList<>();
+        private final List<Product> pending = new ArrayList<>();
+
+        private Ingestion(String defaultCategory) {
+            this.defaultCategory = defaultCategory;
+            report.setMaxItems(maxReportItems);
+        }
+
+        private BulkIngestReport finish() {
+            flush();
+            report.getItems().sort(Comparator.comparingInt(BulkIngestReport.ItemResult::getIndex));
+            return report;
+        }
+
+        private void rejected(int index, String error) {
+            report.setReceived(report.getReceived() + 1);
+            report.failed(index, error);
+        }
+
+        private BulkIngestReport malformed(int index, String reason) {
+            report.setError("Malformed JSON array at item " + index + ": " + reason);
+            return finish();
+        }
+
+        private void accept(int index, JsonNode node) {
+            report.setReceived(report.getReceived() + 1);
+            Product product;
+            try {
+                product = objectMapper.treeToValue(node, Product.class);
+            } catch (JsonProcessingException ex) {
+                report.failed(index, "Invalid product: " + ex.getOriginalMessage());
+                return;
+            }
+
+            String error = validate(product);
+            if (error != null) {
+                report.failed(index, error);
+                return;
+            }
+            product.setId(new ObjectId().toHexString());
+            // Ids are assigned up front for the report, which makes auditing treat these as existing documents
+            Date now = new Date();
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            product.setVersion(0L);
+            product.setSearchTerms(SearchTokenizer.terms(product));
+            pendingIndexes.add(index);
+            pending.add(product);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private String validate(Product product) {
+            Set<ConstraintViolation<Product>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            }
+
+            String categoryName = product.getCategoryName() != null ? product.getCategoryName() : defaultCategory;
+            if (categoryName == null || categoryName.isBlank()) {
+                return "categoryName is required";
+            }
+            categoryName = categoryName.toLowerCase();
+            Optional<Category> category = categories.computeIfAbsent(categoryName, this::findCategory);
+            if (category.isEmpty()) {
+                return "Category name not found: " + categoryName;
+            }
+            product.setCategoryName(categoryName);
+
+            Set<String> requiredAttributes = category.get().getRequiredAttributes();
+            Set<String> attributes = product.getAttributes() == null ? Set.of() : product.getAttributes().keySet();
+            if (requiredAttributes != null && !attributes.containsAll(requiredAttributes)) {
+                return "Missing required attributes for category: " + categoryName;
+            }
+            return null;
+        }
+
+        private Optional<Category> findCategory(String name) {
+            try {
+                return Optional.of(categoryService.getCategoryByName(name));
+            } catch (GeneralInternalException ex) {
+                if (ex.getHttpStatus() == HttpStatus.NOT_FOUND) {
+                    return Optional.empty();
+                }
+                throw ex;
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<Integer> failedPositions = new HashSet<>();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)
+                        .insert(List.copyOf(pending))
+                        .execute();
+            } catch (BulkOperationException ex) {
+                for (BulkWriteError writeError : ex.getErrors()) {
+                    failedPositions.add(writeError.getIndex());
+                    report.failed(pendingIndexes.get(writeError.getIndex()), writeError.getMessage());
+                }
+            } catch (DataAccessException ex) {
+                for (int position = 0; position < pending.size(); position++) {
+                    failedPositions.add(position);
+                    report.failed(pendingIndexes.get(position), "Some database error while adding product");
+                }
+            }
+
+            Set<String> insertedIds = new HashSet<>();
+            for (int position = 0; position < pending.size(); position++) {
+                if (!failedPositions.contains(position)) {
+                    String id = pending.get(position).getId();
+                    insertedIds.add(id);
+                    report.inserted(pendingIndexes.get(position), id);
+                }
+            }
+            if (!insertedIds.isEmpty()) {
+                eventPublisher.publishEvent(ProductsChangedEvent.of(insertedIds));
+            }
+            pending.clear();
+            pendingIndexes.clear();
+        }
+    }
+}
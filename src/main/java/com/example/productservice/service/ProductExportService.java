@@ -0,0 +1,82 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ExportFormat;
+import com.example.productservice.entity.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog straight from a Mongo cursor to the response, one product at a time.
+ * Memory stays flat with catalog size: the cursor only fetches the next batch once the
+ * previous one has been written, and a slow client blocks the writes and with it the cursor.
+ */
+@Service
+public class ProductExportService {
+    private final MongoTemplate mongoTemplate;
+    private final MongoReadRouting readRouting;
+    private final Map<ExportFormat, ObjectWriter> productWriters = new EnumMap<>(ExportFormat.class);
+    private final int cursorBatchSize;
+    private final int flushEvery;
+
+    public ProductExportService(MongoTemplate mongoTemplate, MongoReadRouting readRouting, ObjectMapper objectMapper,
+                                @Value("${product-service.export.cursor-batch-size:500}") int cursorBatchSize,
+                                @Value("${product-service.export.flush-every:100}") int flushEvery) {
+        this.mongoTemplate = mongoTemplate;
+        this.readRouting = readRouting;
+        ObjectWriter jsonWriter = writer(objectMapper);
+        productWriters.put(ExportFormat.NDJSON, jsonWriter);
+        productWriters.put(ExportFormat.JSON, jsonWriter);
+        productWriters.put(ExportFormat.SMILE, writer(objectMapper.copyWith(new SmileFactory())));
+        productWriters.put(ExportFormat.CBOR, writer(objectMapper.copyWith(new CBORFactory())));
+        this.cursorBatchSize = cursorBatchSize;
+        this.flushEvery = flushEvery;
+    }
+
+    public void exportProducts(OutputStream out, ExportFormat format, ProductProjection projection) throws IOException {
+        Query query = projection.applyTo(new Query().cursorBatchSize(cursorBatchSize))
+                .withReadPreference(readRouting.forExport());
+
+        ObjectWriter productWriter = productWriters.get(format);
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class);
+             JsonGenerator generator = productWriter.createGenerator(out)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (format != ExportFormat.NDJSON) {
+                generator.writeStartArray();
+            }
+            int written = 0;
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                productWriter.writeValue(generator, iterator.next());
+                if (format == ExportFormat.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+                if (++written % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+            if (format != ExportFormat.NDJSON) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private static ObjectWriter writer(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The part of a Product a read needs, from a comma separated {@code fields} list or a named view.
+ * Applied in Mongo, so excluded fields are neither shipped by the server nor serialized.
+ */
+public final class ProductProjection {
+    public static final Set<String> FIELDS = Set.of("id", "name", "brand", "price", "availableQuantity", "images",
+            "categoryName", "attributes", "description", "tags", "averageRating", "boardSize", "createdAt", "updatedAt");
+
+    public static final ProductProjection FULL = new ProductProjection(List.of(), false);
+    // What a listing grid renders: one thumbnail instead of the whole gallery
+    public static final ProductProjection SUMMARY = new ProductProjection(
+            List.of("id", "name", "price", "brand", "images", "averageRating"), true);
+
+    private final List<String> fields;
+    private final boolean firstImageOnly;
+
+    private ProductProjection(List<String> fields, boolean firstImageOnly) {
+        this.fields = fields;
+        this.firstImageOnly = firstImageOnly;
+    }
+
+    public static ProductProjection of(String fields, String view) {
+        boolean hasFields = fields != null && !fields.isBlank();
+        boolean hasView = view != null && !view.isBlank();
+        if (hasFields && hasView) {
+            throw new GeneralInternalException("Use either fields or view, not both", HttpStatus.BAD_REQUEST);
+        }
+        if (hasView) {
+            return switch (view.trim().toLowerCase()) {
+                case "summary" -> SUMMARY;
+                case "detail" -> FULL;
+                default -> throw new GeneralInternalException("Invalid view value: " + view + ". Available views: summary, detail",
+                        HttpStatus.BAD_REQUEST);
+            };
+        }
+        List<String> parsed = parseFields(fields);
+        return parsed.isEmpty() ? FULL : new ProductProjection(parsed, false);
+    }
+
+    // An empty list means the whole document
+    public static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return List.of();
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!FIELDS.contains(trimmed)) {
+                throw new GeneralInternalException("Unknown field: " + trimmed + ". Available fields: "
+                        + String.join(", ", FIELDS.stream().sorted().toList()), HttpStatus.BAD_REQUEST);
+            }
+            parsed.add(trimmed);
+        }
+        return List.copyOf(parsed);
+    }
+
+    public boolean isFull() {
+        return fields.isEmpty();
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    // Fields the caller needs internally whether or not the client asked for them
+    public ProductProjection including(String... required) {
+        if (isFull()) {
+            return this;
+        }
+        Set<String> merged = new LinkedHashSet<>(fields);
+        merged.addAll(List.of(required));
+        return new ProductProjection(List.copyOf(merged), firstImageOnly);
+    }
+
+    public Query applyTo(Query query) {
+        if (isFull()) {
+            return query;
+        }
+        query.fields().include(includedFields().toArray(new String[0]));
+        if (firstImageOnly) {
+            query.fields().slice("images", 1);
+        }
+        return query;
+    }
+
+    // The same fields applyTo selects, taken from a full document that is already in memory
+    public Product project(Product product) {
+        if (isFull() || product == null) {
+            return product;
+        }
+        Product projected = new Product();
+        projected.setId(product.getId());
+        for (String field : fields) {
+            switch (field) {
+                case "name" -> projected.setName(product.getName());
+                case "brand" -> projected.setBrand(product.getBrand());
+                case "price" -> projected.setPrice(product.getPrice());
+                case "availableQuantity" -> projected.setAvailableQuantity(product.getAvailableQuantity());
+                case "images" -> projected.setImages(firstImageOnly && product.getImages() != null && product.getImages().size() > 1
+                        ? new ArrayList<>(product.getImages().subList(0, 1)) : product.getImages());
+                case "categoryName" -> projected.setCategoryName(product.getCategoryName());
+                case "attributes" -> projected.setAttributes(product.getAttributes());
+                case "description" -> projected.setDescription(product.getDescription());
+                case "tags" -> projected.setTags(product.getTags());
+                case "averageRating" -> projected.setAverageRating(product.getAverageRating());
+                case "boardSize" -> projected.setBoardSize(product.getBoardSize());
+                case "createdAt" -> projected.setCreatedAt(product.getCreatedAt());
+                case "updatedAt" -> projected.setUpdatedAt(product.getUpdatedAt());
+                case "version" -> projected.setVersion(product.getVersion());
+                default -> {
+                }
+            }
+        }
+        return projected;
+    }
+
+    public ProjectionOperation toProjectOperation() {
+        ProjectionOperation project = Aggregation.project(includedFields().toArray(new String[0]));
+        if (firstImageOnly) {
+            project = project.and(ArrayOperators.Slice.sliceArrayOf("images").itemCount(1)).as("images");
+        }
+        return project;
+    }
+
+    // Tells representations of the same product version apart; stable across instances, unlike hashCode
+    public String etagTag() {
+        if (isFull()) {
+            return "";
+        }
+        String canonical = (firstImageOnly ? "1:" : "0:") + String.join(",", fields.stream().sorted().toList());
+        return "-" + Integer.toHexString(canonical.hashCode());
+    }
+
+    // Projections key caches of projected results
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ProductProjection projection
+                && firstImageOnly == projection.firstImageOnly && fields.equals(projection.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fields, firstImageOnly);
+    }
+
+    // _id is always returned, and a sliced images field is projected separately
+    private List<String> includedFields() {
+        List<String> included = new ArrayList<>();
+        for (String field : fields) {
+            if (!field.equals("id") && !(firstImageOnly && field.equals("images"))) {
+                included.add(field);
+            }
+        }
+        if (included.isEmpty()) {
+            included.add("id");
+        }
+        return included;
+    }
+}
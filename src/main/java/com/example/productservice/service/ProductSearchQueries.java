@@ -0,0 +1,279 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchCursor;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the Mongo criteria and pipelines behind product search. Shared by the offset, keyset
+ * and count paths of both the servlet and the reactive stack.
+ */
+public final class ProductSearchQueries {
+    public static final String RELEVANCE = "relevance";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ProductSearchQueries() {
+    }
+
+    public static void validateSearch(ProductSearchFilter filter, String sortBy, String sortDirection) {
+        validateSort(sortBy, sortDirection);
+        if (sortBy.equals(RELEVANCE) && !hasTextSearch(filter)) {
+            throw new GeneralInternalException("sortBy=relevance needs a keyword with at least one whole word", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    public static void validateSort(String sortBy, String sortDirection) {
+        if (!isValidSortByField(sortBy)) {
+            String availableSortOptions = "Available sorting options: name, price, brand, categoryName, createdAt, relevance";
+            throw new GeneralInternalException("Invalid sortBy value: " + sortBy + ". " + availableSortOptions, HttpStatus.BAD_REQUEST);
+        }
+        if (!(sortDirection.equalsIgnoreCase("asc") || sortDirection.equalsIgnoreCase("desc"))) {
+            throw new GeneralInternalException("Direction must only be 'asc' or 'desc'", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Returns the decoded cursor, null for the first page
+    public static SearchCursor validateCursorSearch(String sortBy, String sortDirection, String cursor) {
+        validateSort(sortBy, sortDirection);
+        if (sortBy.equals(RELEVANCE)) {
+            throw new GeneralInternalException("Cursor paging does not support sortBy=relevance", HttpStatus.BAD_REQUEST);
+        }
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        SearchCursor searchCursor = SearchCursor.decode(cursor);
+        if (!searchCursor.getSortBy().equals(sortBy) || searchCursor.getDirection() != Sort.Direction.fromString(sortDirection)) {
+            throw new GeneralInternalException("Cursor was issued for a different sortBy/sortDirection", HttpStatus.BAD_REQUEST);
+        }
+        return searchCursor;
+    }
+
+    // Offset page: match, sort, skip, limit, then the projection
+    public static Aggregation pagedAggregation(ProductSearchFilter filter, ProductProjection projection, Pageable pageable) {
+        List<AggregationOperation> operations = new ArrayList<>(matchOperations(filter));
+        if (pageable.getSort().getOrderFor(RELEVANCE) != null) {
+            operations.add(relevanceSort());
+        } else {
+            operations.add(Aggregation.sort(withTieBreaker(pageable.getSort())));
+        }
+        operations.add(Aggregation.skip(pageable.getOffset()));
+        operations.add(Aggregation.limit(pageable.getPageSize()));
+        if (!projection.isFull()) {
+            operations.add(projection.toProjectOperation());
+        }
+        return Aggregation.newAggregation(operations);
+    }
+
+    // Keyset page: fetches size + 1 products, see cursorPage for turning them into a page
+    public static Aggregation cursorAggregation(ProductSearchFilter filter, String sortBy, String sortDirection,
+                                                ProductProjection projection, String cursor, int size) {
+        SearchCursor searchCursor = validateCursorSearch(sortBy, sortDirection, cursor);
+        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
+
+        List<AggregationOperation> operations = new ArrayList<>(matchOperations(filter));
+        if (searchCursor != null) {
+            operations.add(Aggregation.match(keysetCriteria(searchCursor)));
+        }
+        operations.add(Aggregation.sort(withTieBreaker(Sort.by(direction, sortBy))));
+        // One extra document tells us whether another page exists without counting
+        operations.add(Aggregation.limit(size + 1L));
+        if (!projection.isFull()) {
+            // The next cursor is built from the last product's sort key
+            operations.add(projection.including(sortBy).toProjectOperation());
+        }
+        return Aggregation.newAggregation(operations);
+    }
+
+    // Once the cursor is built the sort key is projected away again unless the client asked for it
+    public static CursorPage<Product> cursorPage(List<Product> fetched, String sortBy, String sortDirection,
+                                                 ProductProjection projection, int size) {
+        List<Product> products = fetched;
+        String nextCursor = null;
+        if (products.size() > size) {
+            products = products.subList(0, size);
+            Product last = products.get(size - 1);
+            nextCursor = new SearchCursor(sortBy, Sort.Direction.fromString(sortDirection), sortValue(last, sortBy), last.getId()).encode();
+        }
+        if (!projection.isFull()) {
+            products = products.stream().map(projection::project).toList();
+        }
+        return new CursorPage<>(products, size, nextCursor);
+    }
+
+    // $text has to run in the first $match stage of a pipeline, so it is kept apart from the other filters
+    public static List<AggregationOperation> matchOperations(ProductSearchFilter filter) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        TextCriteria textCriteria = textCriteria(filter);
+        if (textCriteria != null) {
+            operations.add(Aggregation.match(textCriteria));
+        }
+        operations.add(Aggregation.match(criteria(filter)));
+        return operations;
+    }
+
+    /**
+     * One $facet stage counting categories, brands, board sizes and price ranges. The keyword is
+     * matched before it, shared by every facet; each facet then applies all other filters but not
+     * its own, which keeps the alternatives to a selected value visible.
+     */
+    public static List<AggregationOperation> facetOperations(ProductSearchFilter filter, List<Double> priceBoundaries, int maxValues) {
+        ProductSearchFilter keywordOnly = ProductSearchFilter.of(filter.getKeyword(), null, null, null, null, null);
+        ProductSearchFilter others = filter.withKeyword(null);
+
+        FacetOperation facets = Aggregation
+                .facet(Aggregation.match(criteria(others.withCategories(List.of()))),
+                        Aggregation.sortByCount("categoryName"), Aggregation.limit(maxValues)).as("categories")
+                .and(Aggregation.match(criteria(others.withBrands(List.of()))),
+                        Aggregation.sortByCount("brand"), Aggregation.limit(maxValues)).as("brands")
+                .and(Aggregation.match(criteria(others.withBoardSizes(List.of()))),
+                        Aggregation.sortByCount("boardSize"), Aggregation.limit(maxValues)).as("boardSizes")
+                .and(Aggregation.match(criteria(others.withMinPrice(null).withMaxPrice(null))),
+                        Aggregation.bucket("price").withBoundaries(priceBoundaries.toArray())
+                                .withDefaultBucket("other").andOutputCount().as("count")).as("priceRanges");
+
+        List<AggregationOperation> operations = new ArrayList<>(matchOperations(keywordOnly));
+        operations.add(facets);
+        return operations;
+    }
+
+    public static Query query(ProductSearchFilter filter) {
+        Query query = new Query(criteria(filter));
+        TextCriteria textCriteria = textCriteria(filter);
+        if (textCriteria != null) {
+            query.addCriteria(textCriteria);
+        }
+        return query;
+    }
+
+    public static boolean hasTextSearch(ProductSearchFilter filter) {
+        return textCriteria(filter) != null;
+    }
+
+    // The _id tie-breaker follows the primary direction so a {field: 1, _id: 1} index can be walked either way
+    public static Sort withTieBreaker(Sort sort) {
+        Sort.Direction direction = sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+        return sort.and(Sort.by(direction, "_id"));
+    }
+
+    // Highest text score first, _id keeps equal scores in a stable order across pages
+    public static AggregationOperation relevanceSort() {
+        return context -> new Document("$sort", new Document("score", new Document("$meta", "textScore")).append("_id", 1));
+    }
+
+    /**
+     * Keyword words go to the text index; words ending in '*' are prefixes matched
+     * against the indexed searchTerms, e.g. "skate*" matches "skateboard".
+     * A plain word only matches whole (stemmed) words: "board" no longer finds "skateboard"
+     * the way the old unanchored regex did, since a substring match cannot use any index.
+     */
+    public static TextCriteria textCriteria(ProductSearchFilter filter) {
+        if (filter.getKeyword() == null) {
+            return null;
+        }
+        String[] words = Arrays.stream(WHITESPACE.split(filter.getKeyword()))
+                .filter(word -> !word.isEmpty() && !word.endsWith("*"))
+                .toArray(String[]::new);
+        return words.length == 0 ? null : TextCriteria.forDefaultLanguage().matchingAny(words);
+    }
+
+    public static Criteria criteria(ProductSearchFilter filter) {
+        List<Criteria> criteriaList = new ArrayList<>();
+        for (String prefix : prefixTerms(filter.getKeyword())) {
+            // Anchored, case-sensitive regex over lower-cased terms becomes an index range scan
+            criteriaList.add(Criteria.where("searchTerms").regex("^" + prefix));
+        }
+
+        if (!filter.getCategories().isEmpty()) {
+            criteriaList.add(Criteria.where("categoryName").in(filter.getCategories()));
+        }
+
+        if (filter.getMinPrice() != null) {
+            criteriaList.add(Criteria.where("price").gte(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            criteriaList.add(Criteria.where("price").lte(filter.getMaxPrice()));
+        }
+
+        if (!filter.getBoardSizes().isEmpty()) {
+            criteriaList.add(Criteria.where("boardSize").in(filter.getBoardSizes()));
+        }
+
+        if (!filter.getBrands().isEmpty()) {
+            criteriaList.add(Criteria.where("brand").in(filter.getBrands()));
+        }
+
+        if (criteriaList.isEmpty()) {
+            return new Criteria();
+        }
+        return new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+    }
+
+    private static Set<String> prefixTerms(String keyword) {
+        Set<String> prefixes = new TreeSet<>();
+        if (keyword == null) {
+            return prefixes;
+        }
+        for (String word : WHITESPACE.split(keyword)) {
+            if (word.endsWith("*")) {
+                prefixes.addAll(SearchTokenizer.tokenize(word));
+            }
+        }
+        return prefixes;
+    }
+
+    private static Object sortValue(Product product, String sortBy) {
+        return switch (sortBy) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            case "brand" -> product.getBrand();
+            case "categoryName" -> product.getCategoryName();
+            case "createdAt" -> product.getCreatedAt();
+            default -> throw new IllegalStateException("Unexpected sortBy: " + sortBy);
+        };
+    }
+
+    private static boolean isValidSortByField(String sortBy) {
+        return sortBy.equals("name") || sortBy.equals("price") || sortBy.equals("brand")
+                || sortBy.equals("categoryName") || sortBy.equals("createdAt") || sortBy.equals(RELEVANCE);
+    }
+
+    // Everything strictly after (lastValue, lastId) in (sortBy, _id) order, so the index range replaces a skip
+    public static Criteria keysetCriteria(SearchCursor cursor) {
+        String field = cursor.getSortBy();
+        Object value = cursor.getLastValue();
+        boolean ascending = cursor.getDirection().isAscending();
+        Object lastId = ObjectId.isValid(cursor.getLastId()) ? new ObjectId(cursor.getLastId()) : cursor.getLastId();
+
+        Criteria sameValue = new Criteria().andOperator(
+                Criteria.where(field).is(value),
+                ascending ? Criteria.where("_id").gt(lastId) : Criteria.where("_id").lt(lastId));
+        // Mongo orders missing/null values first, so they precede everything ascending and follow everything descending
+        if (value == null) {
+            return ascending ? new Criteria().orOperator(sameValue, Criteria.where(field).ne(null)) : sameValue;
+        }
+        if (ascending) {
+            return new Criteria().orOperator(Criteria.where(field).gt(value), sameValue);
+        }
+        return new Criteria().orOperator(Criteria.where(field).lt(value), sameValue, Criteria.where(field).is(null));
+    }
+}
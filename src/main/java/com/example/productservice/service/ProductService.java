@@ -1,42 +1,88 @@
 package com.example.productservice.service;
 
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.cache.SearchCountCache;
+import com.example.productservice.dto.BatchItem;
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
 import com.example.productservice.dto.ProductEditDTO;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchPage;
+import com.example.productservice.dto.SearchSource;
+import com.example.productservice.dto.StockLevelDTO;
+import com.example.productservice.dto.StockReservationDTO;
+import com.example.productservice.dto.StockReservationResultDTO;
 import com.example.productservice.entity.Category;
 import com.example.productservice.entity.Product;
+import com.example.productservice.entity.StockReservation;
+import com.example.productservice.event.ProductsChangedEvent;
 import com.example.productservice.exception.GeneralInternalException;
 import com.example.productservice.repository.ProductRepository;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import com.mongodb.ReadPreference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.parameters.P;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Service
+@Slf4j
+@Profile("!reactive")
 public class ProductService {
     private final CategoryService categoryService;
     private final ProductRepository productRepository;
 
     private final MongoTemplate mongoTemplate;
-
-    public ProductService(CategoryService categoryService, ProductRepository productRepository, MongoTemplate mongoTemplate) {
+    private final SearchCountCache searchCountCache;
+    private final SearchFacetService searchFacetService;
+    private final HotListingService hotListingService;
+    private final MongoConcurrencyLimiter mongoLimiter;
+    private final MongoReadRouting readRouting;
+    private final SearchMetrics searchMetrics;
+    private final ReadCoalescer readCoalescer;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductService(CategoryService categoryService, ProductRepository productRepository, MongoTemplate mongoTemplate,
+                          SearchCountCache searchCountCache, SearchFacetService searchFacetService, HotListingService hotListingService,
+                          MongoConcurrencyLimiter mongoLimiter, MongoReadRouting readRouting, SearchMetrics searchMetrics,
+                          ReadCoalescer readCoalescer, ProductCache productCache, ApplicationEventPublisher eventPublisher) {
         this.categoryService = categoryService;
         this.productRepository = productRepository;
         this.mongoTemplate = mongoTemplate;
+        this.searchCountCache = searchCountCache;
+        this.searchFacetService = searchFacetService;
+        this.hotListingService = hotListingService;
+        this.mongoLimiter = mongoLimiter;
+        this.readRouting = readRouting;
+        this.searchMetrics = searchMetrics;
+        this.readCoalescer = readCoalescer;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public String addProduct(Product product, String categoryName) {
@@ -44,21 +90,28 @@ public class ProductService {
             String lowerCaseCategoryName = categoryName.toLowerCase();
             Category category = categoryService.getCategoryByName(lowerCaseCategoryName);
             product.setCategoryName(lowerCaseCategoryName);
+            product.setSearchTerms(SearchTokenizer.terms(product));
 
             Set<String> requiredAttributes = category.getRequiredAttributes();
             Map<String, String> productAttributes = product.getAttributes();
             if (!productAttributes.keySet().containsAll(requiredAttributes)) {
                 throw new GeneralInternalException("Missing required attributes for category: " + category.getName(), HttpStatus.BAD_REQUEST);
             }
-            return productRepository.save(product).getId();
+            String id = mongoLimiter.call(() -> productRepository.save(product)).getId();
+            eventPublisher.publishEvent(ProductsChangedEvent.of(id));
+            return id;
+        } catch (OptimisticLockingFailureException | DuplicateKeyException ex) {
+            // A client-supplied id that already exists makes save() an update of a version it never read
+            throw new GeneralInternalException("Product with id: " + product.getId() + " already exists", HttpStatus.CONFLICT);
         } catch (DataAccessException ex) {
             throw new GeneralInternalException("Some database error while adding product");
         }
     }
 
-    public List<Product> getAllProducts() {
+    public List<Product> getAllProducts(ProductProjection projection) {
         try {
-            return productRepository.findAll();
+            Query query = projection.applyTo(new Query()).withReadPreference(readRouting.forExport());
+            return mongoLimiter.call(() -> mongoTemplate.find(query, Product.class));
         } catch (DataAccessException ex) {
             throw new GeneralInternalException("Some database error while fetching all products");
         }
@@ -66,144 +119,402 @@ public class ProductService {
 
     public void deleteProduct(String id) {
         try {
-            if (productRepository.deleteProductById(id) == 0)
+            if (mongoLimiter.call(() -> productRepository.deleteProductById(id)) == 0)
                 throw new GeneralInternalException("Cannot delete product with id: " + id + " as id does not exist",
                         HttpStatus.NOT_FOUND);
+            eventPublisher.publishEvent(ProductsChangedEvent.of(id));
         } catch (DataAccessException ex) {
             throw new GeneralInternalException("Some database error while deleting product with id: " + id);
         }
     }
 
-    public Page<Product> searchProducts(String keyword, String category, Double minPrice, Double maxPrice, String sortBy, String sortDirection, String boardSize, String brand, Pageable pageable) {
-        if (!isValidSortByField(sortBy)) {
-            String availableSortOptions = "Available sorting options: name, price, brand, categoryName";
-            throw new GeneralInternalException("Invalid sortBy value: " + sortBy + ". " + availableSortOptions, HttpStatus.BAD_REQUEST);
-        }
-        if (!(sortDirection.equalsIgnoreCase("asc") || sortDirection.equalsIgnoreCase("desc"))) {
-            throw new GeneralInternalException("Direction must only be 'asc' or 'desc'", HttpStatus.BAD_REQUEST);
+    public Page<Product> searchProducts(ProductSearchFilter filter, String sortBy, String sortDirection, CountMode countMode,
+                                        SearchSource source, ProductProjection projection, boolean includeFacets, Pageable pageable) {
+        ProductSearchQueries.validateSearch(filter, sortBy, sortDirection);
+        if (source == SearchSource.SNAPSHOT) {
+            Optional<Page<Product>> listing = hotListingService.page(filter, sortBy, sortDirection, projection, pageable);
+            if (listing.isPresent()) {
+                searchMetrics.record(filter, "snapshot", listing.get().getNumberOfElements());
+                return withFacets(listing.get(), filter, includeFacets);
+            }
         }
+        ReadPreference readPreference = readRouting.forSearch();
+        List<Object> key = Arrays.asList(filter, sortBy, sortDirection, countMode, projection, pageable, readPreference);
+        Page<Product> page = readCoalescer.execute("search", key, () -> {
+            List<Product> products = executePaged(filter, projection, pageable, readPreference);
+            // The count only runs when the page itself cannot tell us the total
+            AtomicBoolean estimated = new AtomicBoolean();
+            Page<Product> counted = PageableExecutionUtils.getPage(products, pageable, () -> {
+                long total = countMatches(filter, countMode);
+                estimated.set(searchCountCache.isEstimate(filter, countMode, total));
+                return total;
+            });
+            return new SearchPage<>(counted, null, estimated.get());
+        });
+        searchMetrics.record(filter, "offset", page.getNumberOfElements());
+        return withFacets(page, filter, includeFacets);
+    }
+
+    private Page<Product> withFacets(Page<Product> page, ProductSearchFilter filter, boolean includeFacets) {
+        return includeFacets ? SearchPage.withFacets(page, searchFacetService.facets(filter)) : page;
+    }
 
-        List<String> categoryArray = Arrays.stream(category.split(","))
-                .filter(s -> !s.isEmpty())
-                .toList();
+    public CursorPage<Product> searchProductsAfter(ProductSearchFilter filter, String sortBy, String sortDirection,
+                                                   ProductProjection projection, String cursor, int size) {
+        var aggregation = MongoReadRouting.withReadPreference(
+                ProductSearchQueries.cursorAggregation(filter, sortBy, sortDirection, projection, cursor, size), readRouting.forSearch());
+        List<Product> products = mongoLimiter.call(
+                () -> mongoTemplate.aggregate(aggregation, Product.class, Product.class).getMappedResults());
+        CursorPage<Product> page = ProductSearchQueries.cursorPage(products, sortBy, sortDirection, projection, size);
+        searchMetrics.record(filter, "cursor", page.getContent().size());
+        return page;
+    }
 
-        List<String> boardSizeList = Arrays.stream(boardSize.split(","))
-                .filter(s -> !s.isEmpty())
-                .toList();
+    public List<Product> executePaged(ProductSearchFilter filter, ProductProjection projection, Pageable pageable) {
+        return executePaged(filter, projection, pageable, readRouting.forSearch());
+    }
 
-        List<String> brandList = Arrays.stream(brand.split(","))
-                .filter(s -> !s.isEmpty())
-                .toList();
+    private List<Product> executePaged(ProductSearchFilter filter, ProductProjection projection, Pageable pageable,
+                                       ReadPreference readPreference) {
+        var aggregation = MongoReadRouting.withReadPreference(
+                ProductSearchQueries.pagedAggregation(filter, projection, pageable), readPreference);
+        return mongoLimiter.call(() -> mongoTemplate.aggregate(aggregation, Product.class, Product.class).getMappedResults());
+    }
 
+    private long countMatches(ProductSearchFilter filter, CountMode countMode) {
+        return searchCountCache.get(filter, countMode, () -> mongoLimiter.call(() -> {
+            if (countMode == CountMode.EXACT) {
+                return mongoTemplate.count(ProductSearchQueries.query(filter).withReadPreference(readRouting.forSearch()), Product.class);
+            }
+            if (filter.isUnfiltered()) {
+                return mongoTemplate.estimatedCount(Product.class);
+            }
+            return mongoTemplate.count(ProductSearchQueries.query(filter).limit(searchCountCache.getEstimatedCountCap())
+                    .withReadPreference(readRouting.forSearch()), Product.class);
+        }));
+    }
 
-        // Build criteria list
-        List<Criteria> criteriaList = new ArrayList<>();
-        if (keyword != null && !keyword.isEmpty()) {
-            criteriaList.add(new Criteria().orOperator(
-                    Criteria.where("name").regex(keyword, "i"),
-                    Criteria.where("brand").regex(keyword, "i"),
-                    Criteria.where("categoryName").regex(keyword, "i"),
-                    Criteria.where("description").regex(keyword, "i"),
-                    Criteria.where("tags").in(keyword)
-            ));
+    // Sparse results also carry version and the audit dates, which back the product ETag; project again before sending
+    public Product getProductById(String id, ProductProjection projection) {
+        try {
+            ProductProjection withVersion = projection.isFull() ? projection : projection.including("version", "createdAt", "updatedAt");
+            Product product = productCache.isEnabled()
+                    ? withVersion.project(cachedProduct(id))
+                    : findProduct(id, withVersion, readRouting.forProducts());
+            if (product == null) {
+                throw new GeneralInternalException("id does not exist", HttpStatus.NOT_FOUND);
+            }
+            return product;
+        } catch (DataAccessException e) {
+            throw new GeneralInternalException("Some database error while getting product with id: " + id);
         }
+    }
 
-        if (!categoryArray.isEmpty()) {
-            criteriaList.add(Criteria.where("categoryName").in(categoryArray));
+    // Just what the product ETag is made of, from the primary so a write through another instance is seen
+    public Product getProductVersion(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id)).withReadPreference(ReadPreference.primary());
+        query.fields().include("version", "createdAt", "updatedAt");
+        try {
+            Product product = mongoLimiter.call(() -> mongoTemplate.findOne(query, Product.class));
+            if (product == null) {
+                throw new GeneralInternalException("id does not exist", HttpStatus.NOT_FOUND);
+            }
+            return product;
+        } catch (DataAccessException e) {
+            throw new GeneralInternalException("Some database error while getting product with id: " + id);
         }
+    }
+
+    // The cache holds whole documents read from the primary, so a miss right after an invalidation sees the write
+    private Product cachedProduct(String id) {
+        return productCache.get(id, () -> findProduct(id, ProductProjection.FULL, ReadPreference.primary()));
+    }
+
+    private Product findProduct(String id, ProductProjection projection, ReadPreference readPreference) {
+        Query query = projection.applyTo(Query.query(Criteria.where("_id").is(id))).withReadPreference(readPreference);
+        return readCoalescer.execute("product", List.of(id, projection, readPreference),
+                () -> mongoLimiter.call(() -> mongoTemplate.findOne(query, Product.class)));
+    }
 
-        if (minPrice != null) {
-            criteriaList.add(Criteria.where("price").gte(minPrice));
+    public void updateProduct(String id, ProductEditDTO productData) {
+        Update update = new Update();
+        if (productData.getName() != null) {
+            update.set("name", productData.getName());
         }
-        if (maxPrice != null) {
-            criteriaList.add(Criteria.where("price").lte(maxPrice));
+        if (productData.getPrice() != null) {
+            update.set("price", productData.getPrice());
         }
-
-        if (!boardSizeList.isEmpty()) {
-            criteriaList.add(Criteria.where("boardSize").in(boardSizeList));
+        if (productData.getAvailableQuantity() != null) {
+            update.set("availableQuantity", productData.getAvailableQuantity());
+        }
+        if (productData.getDescription() != null) {
+            update.set("description", productData.getDescription());
         }
+        if (update.getUpdateObject().isEmpty()) {
+            throw new GeneralInternalException("Nothing to update for product with id: " + id, HttpStatus.BAD_REQUEST);
+        }
+        update.inc("version", 1);
+        update.currentDate("updatedAt");
 
-        if (!brandList.isEmpty()) {
-            criteriaList.add(Criteria.where("brand").in(brandList));
+        Query query = Query.query(Criteria.where("_id").is(id));
+        if (productData.getVersion() != null) {
+            query.addCriteria(Criteria.where("version").is(productData.getVersion()));
         }
+        // One permit for the update and, on a rename, the read its search terms are built from
+        mongoLimiter.run(() -> applyUpdate(id, productData, query, update));
+    }
 
-        Criteria matchCriteria = new Criteria();
-        if (!criteriaList.isEmpty()) {
-            matchCriteria = new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+    private void applyUpdate(String id, ProductEditDTO productData, Query query, Update update) {
+        try {
+            if (productData.getName() != null) {
+                // A rename changes the search terms, which also depend on brand, category and tags; those are not
+                // editable here, so terms built from their current values go out in the same write as the name
+                Query current = Query.query(Criteria.where("_id").is(id)).withReadPreference(ReadPreference.primary());
+                current.fields().include("brand", "categoryName", "tags");
+                Product merged = mongoTemplate.findOne(current, Product.class);
+                if (merged != null) {
+                    merged.setName(productData.getName());
+                    update.set("searchTerms", SearchTokenizer.terms(merged));
+                }
+            }
+            boolean matched = mongoTemplate.updateFirst(query, update, Product.class).getMatchedCount() > 0;
+
+            if (!matched) {
+                if (productData.getVersion() != null && productRepository.existsById(id)) {
+                    throw new GeneralInternalException("Product with id: " + id + " was modified since version "
+                            + productData.getVersion(), HttpStatus.CONFLICT);
+                }
+                throw new GeneralInternalException("Product not found", HttpStatus.NOT_FOUND);
+            }
+            eventPublisher.publishEvent(ProductsChangedEvent.of(id));
+        } catch (DataAccessException e) {
+            throw new GeneralInternalException("Some database error when editing product with id: " + id);
         }
-        Result result = executePaged(matchCriteria, pageable);
+    }
 
-        return new PageImpl<>(result.getProducts(), pageable, result.getTotalCount());
+    public Integer getAvailableQuantity(String productId) {
+        try {
+            Optional<Product> found = productCache.isEnabled()
+                    ? Optional.ofNullable(cachedProduct(productId))
+                    : mongoLimiter.call(() -> productRepository.findById(productId));
+            Product product = found.orElseThrow(() -> new GeneralInternalException("Cannot get quantity as product id: " + productId + "does not exist", HttpStatus.NOT_FOUND));
+            return product.getAvailableQuantity();
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while trying to get quantity from product id: " + productId);
+        }
     }
 
-    public Result executePaged(Criteria criteria, Pageable pageable) {
-        System.out.println(pageable.getSort());
-        Sort sort = pageable.getSort().and(Sort.by(Sort.Direction.ASC, "_id"));
+    // One $in query for the whole list; duplicates and unknown ids keep their place in the result
+    public List<BatchItem<Product>> getProductsByIds(List<String> ids, ProductProjection projection) {
+        try {
+            Query query = projection.applyTo(Query.query(Criteria.where("_id").in(new LinkedHashSet<>(ids))))
+                    .withReadPreference(readRouting.forProducts());
+            Map<String, Product> products = byId(mongoLimiter.call(() -> mongoTemplate.find(query, Product.class)));
+            return ids.stream().map(id -> BatchItem.of(id, products.get(id))).toList();
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while getting products by id");
+        }
+    }
 
-        var match = Aggregation.match(criteria);
-        var facets = Aggregation
-                .facet(
-                        Aggregation.sort(sort),
-                        Aggregation.skip(pageable.getOffset()),
-                        Aggregation.limit(pageable.getPageSize())
-                ).as("products")
-                .and(
-                        Aggregation.count().as("count")
-                ).as("countFacet");
-        var project = Aggregation
-                .project("products")
-                .and("$countFacet.count").arrayElementAt(0).as("totalCount");
+    public List<BatchItem<Integer>> getAvailableQuantities(List<String> productIds) {
+        try {
+            Query query = Query.query(Criteria.where("_id").in(new LinkedHashSet<>(productIds)));
+            query.fields().include("availableQuantity");
+            Map<String, Product> products = byId(mongoLimiter.call(() -> mongoTemplate.find(query, Product.class)));
+            return productIds.stream()
+                    .map(id -> BatchItem.of(id, products.containsKey(id) ? products.get(id).getAvailableQuantity() : null))
+                    .toList();
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while trying to get quantities");
+        }
+    }
 
-        var aggregation = Aggregation.newAggregation(match, facets, project);
-        AggregationResults<Result> aggregationResults = mongoTemplate.aggregate(aggregation, Product.class, Result.class);
-        return aggregationResults.getUniqueMappedResult();
+    private static Map<String, Product> byId(List<Product> products) {
+        Map<String, Product> byId = new HashMap<>();
+        for (Product product : products) {
+            byId.put(product.getId(), product);
+        }
+        return byId;
     }
 
-    private boolean isValidSortByField(String sortBy) {
-        return sortBy.equals("name") || sortBy.equals("price") || sortBy.equals("brand")
-                || sortBy.equals("categoryName") || sortBy.equals("createdAt");
+    /**
+     * Takes stock for a whole cart. Each product is decremented with a single conditional $inc,
+     * so concurrent checkouts can never oversell; if any item cannot be reserved, the items
+     * already taken are put back and the call fails. The returned reservation id is what
+     * {@link #releaseStock(String)} redeems.
+     */
+    public StockReservationResultDTO reserveStock(List<StockReservationDTO.Item> items) {
+        // Held for the whole cart, so a rejection cannot land between a reservation and its compensation
+        return mongoLimiter.call(() -> reserveAll(items));
     }
 
-    public Product getProductById(String id) {
+    private StockReservationResultDTO reserveAll(List<StockReservationDTO.Item> items) {
+        StockReservation reservation = new StockReservation();
+        reservation.setQuantities(mergeQuantities(items));
+        reservation.setStatus(StockReservation.Status.PENDING);
+        reservation.setCreatedAt(new Date());
         try {
-            return productRepository.findById(id)
-                    .orElseThrow(() -> new GeneralInternalException("id does not exist", HttpStatus.NOT_FOUND));
-        } catch (DataAccessException e) {
-            throw new GeneralInternalException("Some database error while getting product with id: " + id);
+            mongoTemplate.insert(reservation);
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while reserving stock");
         }
+        List<StockLevelDTO> reserved = new ArrayList<>();
+        String unavailable = null;
+        try {
+            for (Map.Entry<String, Integer> item : reservation.getQuantities().entrySet()) {
+                Query query = Query.query(Criteria.where("_id").is(item.getKey())
+                        .and("availableQuantity").gte(item.getValue()));
+                Integer quantity = incrementStock(query, -item.getValue());
+                if (quantity == null) {
+                    unavailable = item.getKey();
+                    break;
+                }
+                reserved.add(new StockLevelDTO(item.getKey(), quantity));
+            }
+            if (unavailable == null) {
+                mongoTemplate.updateFirst(reservationQuery(reservation.getId()),
+                        Update.update("status", StockReservation.Status.ACTIVE), StockReservation.class);
+            }
+        } catch (DataAccessException ex) {
+            compensate(reservation, reserved);
+            throw new GeneralInternalException("Some database error while reserving stock");
+        }
+        if (unavailable != null) {
+            compensate(reservation, reserved);
+            throw unavailableStock(unavailable);
+        }
+        eventPublisher.publishEvent(ProductsChangedEvent.stockChanged(reservation.getQuantities().keySet()));
+        return new StockReservationResultDTO(reservation.getId(), StockReservation.Status.ACTIVE, reserved);
     }
 
-    public void updateProduct(String id, ProductEditDTO productData) {
+    private GeneralInternalException unavailableStock(String productId) {
+        boolean exists;
         try {
-            Product product = productRepository.findById(id)
-                    .orElseThrow(() -> new GeneralInternalException("Product not found", HttpStatus.NOT_FOUND));
-
+            exists = productRepository.existsById(productId);
+        } catch (DataAccessException ex) {
+            return new GeneralInternalException("Some database error while reserving stock");
+        }
+        if (!exists) {
+            return new GeneralInternalException("Cannot reserve stock as product id: " + productId + " does not exist",
+                    HttpStatus.NOT_FOUND);
+        }
+        return new GeneralInternalException("Not enough stock for product id: " + productId, HttpStatus.CONFLICT);
+    }
 
-            product.setName(productData.getName());
-            product.setPrice(productData.getPrice());
-            product.setAvailableQuantity(productData.getAvailableQuantity());
-            product.setDescription(productData.getDescription());
+    /**
+     * Puts back the stock a reservation took. Each product is first claimed on the reservation and
+     * only then incremented, so retried or concurrent releases of the same reservation put every
+     * quantity back exactly once; releasing an already released reservation changes nothing.
+     */
+    public StockReservationResultDTO releaseStock(String reservationId) {
+        return mongoLimiter.call(() -> releaseAll(reservationId));
+    }
 
-            productRepository.save(product);
-        } catch (DataAccessException e) {
-            throw new GeneralInternalException("Some database error when editing product with id: " + id);
+    private StockReservationResultDTO releaseAll(String reservationId) {
+        List<StockLevelDTO> released = new ArrayList<>();
+        try {
+            StockReservation reservation = mongoTemplate.findById(reservationId, StockReservation.class);
+            if (reservation == null) {
+                throw new GeneralInternalException("Reservation id: " + reservationId + " does not exist", HttpStatus.NOT_FOUND);
+            }
+            if (reservation.getStatus() == StockReservation.Status.RELEASED) {
+                return new StockReservationResultDTO(reservationId, StockReservation.Status.RELEASED, released);
+            }
+            if (reservation.getStatus() != StockReservation.Status.ACTIVE) {
+                throw new GeneralInternalException("Reservation id: " + reservationId + " is " + reservation.getStatus(),
+                        HttpStatus.CONFLICT);
+            }
+            for (Map.Entry<String, Integer> item : reservation.getQuantities().entrySet()) {
+                if (!claimRelease(reservationId, item.getKey())) {
+                    continue;
+                }
+                Integer quantity;
+                try {
+                    quantity = incrementStock(Query.query(Criteria.where("_id").is(item.getKey())), item.getValue());
+                } catch (DataAccessException ex) {
+                    // The driver already retried the write, so it did not apply and a later release may claim it again
+                    mongoTemplate.updateFirst(reservationQuery(reservationId), new Update().pull("released", item.getKey()),
+                            StockReservation.class);
+                    throw ex;
+                }
+                // A product deleted since it was reserved has no stock left to put back
+                if (quantity != null) {
+                    released.add(new StockLevelDTO(item.getKey(), quantity));
+                }
+            }
+            mongoTemplate.updateFirst(reservationQuery(reservationId)
+                            .addCriteria(Criteria.where("status").is(StockReservation.Status.ACTIVE)
+                                    .and("released").all(reservation.getQuantities().keySet())),
+                    Update.update("status", StockReservation.Status.RELEASED).currentDate("closedAt"), StockReservation.class);
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while releasing stock");
+        } finally {
+            if (!released.isEmpty()) {
+                eventPublisher.publishEvent(ProductsChangedEvent.stockChanged(
+                        released.stream().map(StockLevelDTO::getProductId).collect(Collectors.toSet())));
+            }
+        }
+        return new StockReservationResultDTO(reservationId, StockReservation.Status.RELEASED, released);
     }
 
-}
+    // Marks the product as put back on an active reservation; false when another release already did
+    private boolean claimRelease(String reservationId, String productId) {
+        Query query = reservationQuery(reservationId).addCriteria(Criteria.where("status").is(StockReservation.Status.ACTIVE)
+                .and("released").ne(productId));
+        return mongoTemplate.updateFirst(query, new Update().addToSet("released", productId), StockReservation.class)
+                .getModifiedCount() > 0;
+    }
 
-    @Data
-    public static class Result {
-        private int totalCount;
-        private List<Product> products;
+    // Returns the quantity after the increment, or null when nothing matched the query
+    private Integer incrementStock(Query query, int delta) {
+        query.fields().include("availableQuantity");
+        Product updated = mongoTemplate.findAndModify(query, new Update().inc("availableQuantity", delta).currentDate("updatedAt"),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+        return updated == null ? null : updated.getAvailableQuantity();
     }
 
-    public Integer getAvailableQuantity(String productId) {
+    /**
+     * Puts back what a failed reservation already took. Each product is tried on its own; stock that
+     * cannot be put back is reported instead of being lost silently, and the reservation is left
+     * ACTIVE holding exactly that stock, so releasing it later returns it.
+     */
+    private void compensate(StockReservation reservation, List<StockLevelDTO> reserved) {
+        Set<String> putBack = new LinkedHashSet<>(reservation.getQuantities().keySet());
+        List<String> stranded = new ArrayList<>();
+        for (StockLevelDTO item : reserved) {
+            try {
+                incrementStock(Query.query(Criteria.where("_id").is(item.getProductId())),
+                        reservation.getQuantities().get(item.getProductId()));
+            } catch (DataAccessException ex) {
+                log.error("Could not put back stock of product {} for failed reservation {}", item.getProductId(), reservation.getId(), ex);
+                putBack.remove(item.getProductId());
+                stranded.add(item.getProductId());
+            }
+        }
+        Update close = stranded.isEmpty()
+                ? Update.update("status", StockReservation.Status.CANCELLED).currentDate("closedAt")
+                : Update.update("status", StockReservation.Status.ACTIVE).set("released", putBack);
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new GeneralInternalException("Cannot get quantity as product id: " + productId + "does not exist", HttpStatus.NOT_FOUND));
-            return product.getAvailableQuantity();
+            mongoTemplate.updateFirst(reservationQuery(reservation.getId()), close, StockReservation.class);
         } catch (DataAccessException ex) {
-            throw new GeneralInternalException("Some database error while trying to get quantity from product id: " + productId);
+            log.error("Could not record the outcome of failed reservation {}", reservation.getId(), ex);
+        }
+        if (!stranded.isEmpty()) {
+            throw new GeneralInternalException("Reservation id: " + reservation.getId() + " failed and stock of product ids: "
+                    + stranded + " could not be put back, release the reservation to return it");
+        }
+    }
+
+    private static Query reservationQuery(String reservationId) {
+        return Query.query(Criteria.where("_id").is(reservationId));
+    }
+
+    // The same product listed twice in a cart is reserved as one decrement
+    private Map<String, Integer> mergeQuantities(List<StockReservationDTO.Item> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (StockReservationDTO.Item item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
+        return quantities;
     }
 }
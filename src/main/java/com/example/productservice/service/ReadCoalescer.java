@@ -0,0 +1,115 @@
+package com.example.productservice.service;
+
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.exception.GeneralInternalException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for identical concurrent reads. The first caller for a key runs the query and every
+ * caller that arrives while it is in flight waits for the same result instead of issuing its own.
+ * Nothing is kept once the query completes, so no staleness is added; a write drops all in-flight
+ * entries so requests arriving after it start a fresh query.
+ * <p>
+ * Every caller gets the same result instance, so results must be treated as immutable, as they
+ * already are for {@link com.example.productservice.cache.ProductCache}: a caller that needs to
+ * change a Product or Page copies it first. A follower waits at most max-wait for the leader and
+ * then fails with 503, and a failed leader's exception reaches followers wrapped in one of their own.
+ */
+@Component
+public class ReadCoalescer {
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Outcomes> outcomes = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    public ReadCoalescer(MeterRegistry meterRegistry,
+                         @Value("${product-service.read-coalescer.max-wait:5s}") Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.maxWaitNanos = maxWait.toNanos();
+        Gauge.builder("product.read.coalescer.in-flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String kind, Object key, Supplier<T> loader) {
+        Outcomes outcome = outcomes.computeIfAbsent(kind, this::register);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            outcome.collapsed().increment();
+            return (T) await(existing, outcome);
+        }
+        outcome.executed().increment();
+        try {
+            T result = loader.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            own.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        // Stock-only writes change product documents too, so they are not exempt here
+        inFlight.clear();
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object await(CompletableFuture<Object> future, Outcomes outcome) {
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw followerException(ex.getCause());
+        } catch (TimeoutException ex) {
+            outcome.timedOut().increment();
+            throw new GeneralInternalException("Timed out waiting for a concurrent read, please retry", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GeneralInternalException("Interrupted waiting for a concurrent read", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    // A fresh exception per follower, of the kind callers already handle, so no two requests share or mutate one instance
+    static RuntimeException followerException(Throwable failure) {
+        if (failure instanceof GeneralInternalException ex) {
+            return new GeneralInternalException(ex.getMessage(), ex.getHttpStatus(), ex);
+        }
+        if (failure instanceof DataAccessException ex) {
+            return new DataRetrievalFailureException(ex.getMessage(), ex);
+        }
+        return new GeneralInternalException("Concurrent read failed", HttpStatus.INTERNAL_SERVER_ERROR, failure);
+    }
+
+    private Outcomes register(String kind) {
+        return new Outcomes(
+                Counter.builder("product.read.coalesced").tag("kind", kind).tag("outcome", "executed").register(meterRegistry),
+                Counter.builder("product.read.coalesced").tag("kind", kind).tag("outcome", "collapsed").register(meterRegistry),
+                Counter.builder("product.read.coalesced").tag("kind", kind).tag("outcome", "timed-out").register(meterRegistry));
+    }
+
+    private record Outcomes(Counter executed, Counter collapsed, Counter timedOut) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchExplainReport;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Explains the query behind an offset search so index coverage can be checked against a real catalog.
+ * The search pipeline only has $match/$sort/$skip/$limit, which Mongo pushes down into the same
+ * find plan explained here.
+ */
+@Service
+public class SearchExplainService {
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+
+    public SearchExplainService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    }
+
+    public SearchExplainReport explainSearch(ProductSearchFilter filter, Pageable pageable) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+        Query query = ProductSearchQueries.query(filter);
+
+        Document sort;
+        if (pageable.getSort().getOrderFor(ProductSearchQueries.RELEVANCE) != null) {
+            sort = new Document("score", new Document("$meta", "textScore")).append("_id", 1);
+        } else {
+            Query sorted = new Query().with(ProductSearchQueries.withTieBreaker(pageable.getSort()));
+            sort = queryMapper.getMappedSort(sorted.getSortObject(), entity);
+        }
+
+        Document find = new Document("find", mongoTemplate.getCollectionName(Product.class))
+                .append("filter", queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .append("sort", sort)
+                .append("skip", pageable.getOffset())
+                .append("limit", pageable.getPageSize());
+        try {
+            Document explain = mongoTemplate.getDb().runCommand(
+                    new Document("explain", find).append("verbosity", "executionStats"));
+            return toReport(explain);
+        } catch (DataAccessException ex) {
+            throw new GeneralInternalException("Some database error while explaining search");
+        }
+    }
+
+    static SearchExplainReport toReport(Document explain) {
+        SearchExplainReport report = new SearchExplainReport();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        // Slot-based engine (6.0+) nests the classic plan tree under queryPlan
+        if (winningPlan.containsKey("queryPlan")) {
+            winningPlan = winningPlan.get("queryPlan", Document.class);
+        }
+        collectStages(winningPlan, report);
+
+        List<String> stages = report.getPlanStages();
+        report.setCollectionScan(stages.contains("COLLSCAN"));
+        report.setInMemorySort(stages.contains("SORT"));
+        report.setCovered(stages.contains("IXSCAN") && !stages.contains("FETCH") && !report.isCollectionScan());
+
+        Document stats = explain.get("executionStats", Document.class);
+        if (stats != null) {
+            report.setReturned(longValue(stats, "nReturned"));
+            report.setKeysExamined(longValue(stats, "totalKeysExamined"));
+            report.setDocsExamined(longValue(stats, "totalDocsExamined"));
+            report.setExecutionTimeMillis(longValue(stats, "executionTimeMillis"));
+        }
+        return report;
+    }
+
+    private static void collectStages(Document stage, SearchExplainReport report) {
+        report.getPlanStages().add(stage.getString("stage"));
+        String indexName = stage.getString("indexName");
+        if (indexName != null && !report.getIndexesUsed().contains(indexName)) {
+            report.getIndexesUsed().add(indexName);
+        }
+        Document inputStage = stage.get("inputStage", Document.class);
+        if (inputStage != null) {
+            collectStages(inputStage, report);
+        }
+        List<Document> inputStages = stage.getList("inputStages", Document.class);
+        if (inputStages != null) {
+            inputStages.forEach(input -> collectStages(input, report));
+        }
+    }
+
+    private static long longValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
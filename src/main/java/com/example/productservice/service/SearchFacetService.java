@@ -0,0 +1,90 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.SearchFacetCache;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchFacets;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class SearchFacetService {
+    private final MongoTemplate mongoTemplate;
+    private final SearchFacetCache searchFacetCache;
+    private final MongoConcurrencyLimiter mongoLimiter;
+    private final MongoReadRouting readRouting;
+    private final List<Double> priceBoundaries;
+    private final int maxValues;
+
+    public SearchFacetService(MongoTemplate mongoTemplate, SearchFacetCache searchFacetCache, MongoConcurrencyLimiter mongoLimiter,
+                              MongoReadRouting readRouting,
+                              @Value("${product-service.search.facets.price-boundaries:0,25,50,100,200,500}") List<Double> priceBoundaries,
+                              @Value("${product-service.search.facets.max-values:50}") int maxValues) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchFacetCache = searchFacetCache;
+        this.mongoLimiter = mongoLimiter;
+        this.readRouting = readRouting;
+        this.priceBoundaries = priceBoundaries.stream().sorted().distinct().toList();
+        this.maxValues = maxValues;
+    }
+
+    public SearchFacets facets(ProductSearchFilter filter) {
+        return searchFacetCache.get(filter, () -> {
+            try {
+                Aggregation aggregation = MongoReadRouting.withReadPreference(facetAggregation(filter), readRouting.forSearch());
+                Document result = mongoLimiter.call(
+                        () -> mongoTemplate.aggregate(aggregation, Product.class, Document.class).getUniqueMappedResult());
+                return toFacets(result);
+            } catch (DataAccessException ex) {
+                throw new GeneralInternalException("Some database error while counting search facets");
+            }
+        });
+    }
+
+    public Aggregation facetAggregation(ProductSearchFilter filter) {
+        return Aggregation.newAggregation(ProductSearchQueries.facetOperations(filter, priceBoundaries, maxValues));
+    }
+
+    public SearchFacets toFacets(Document result) {
+        if (result == null) {
+            result = new Document();
+        }
+        return new SearchFacets(counts(result, "categories"), counts(result, "brands"), counts(result, "boardSizes"),
+                priceRanges(result));
+    }
+
+    private static List<SearchFacets.FacetCount> counts(Document result, String facet) {
+        List<SearchFacets.FacetCount> counts = new ArrayList<>();
+        for (Document bucket : result.getList(facet, Document.class, List.of())) {
+            // Products without the field are grouped under null, which is not a selectable filter
+            Object value = bucket.get("_id");
+            if (value != null) {
+                counts.add(new SearchFacets.FacetCount(value.toString(), ((Number) bucket.get("count")).longValue()));
+            }
+        }
+        return counts;
+    }
+
+    private List<SearchFacets.PriceBucket> priceRanges(Document result) {
+        List<SearchFacets.PriceBucket> ranges = new ArrayList<>();
+        for (Document bucket : result.getList("priceRanges", Document.class, List.of())) {
+            long count = ((Number) bucket.get("count")).longValue();
+            if (bucket.get("_id") instanceof Number lower) {
+                int index = priceBoundaries.indexOf(lower.doubleValue());
+                ranges.add(new SearchFacets.PriceBucket(lower.doubleValue(), priceBoundaries.get(index + 1), count));
+            } else {
+                // The default bucket: above the last boundary (or below the first)
+                ranges.add(new SearchFacets.PriceBucket(priceBoundaries.get(priceBoundaries.size() - 1), null, count));
+            }
+        }
+        return ranges;
+    }
+}
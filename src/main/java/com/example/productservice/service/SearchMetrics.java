@@ -0,0 +1,60 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which filter combinations search traffic uses and how many products it returns.
+ * Tags only name the filters that were set, never their values, so cardinality stays bounded.
+ */
+@Component
+public class SearchMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> requests = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> results = new ConcurrentHashMap<>();
+
+    public SearchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(ProductSearchFilter filter, String mode, int resultCount) {
+        String filters = filterCombination(filter);
+        requests.computeIfAbsent(mode + "|" + filters, key -> Counter.builder("product.search.requests")
+                        .tag("mode", mode)
+                        .tag("filters", filters)
+                        .register(meterRegistry))
+                .increment();
+        results.computeIfAbsent(mode, key -> DistributionSummary.builder("product.search.results")
+                        .tag("mode", mode)
+                        .register(meterRegistry))
+                .record(resultCount);
+    }
+
+    static String filterCombination(ProductSearchFilter filter) {
+        List<String> names = new ArrayList<>(5);
+        if (filter.getKeyword() != null) {
+            names.add("keyword");
+        }
+        if (!filter.getCategories().isEmpty()) {
+            names.add("category");
+        }
+        if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            names.add("price");
+        }
+        if (!filter.getBoardSizes().isEmpty()) {
+            names.add("boardSize");
+        }
+        if (!filter.getBrands().isEmpty()) {
+            names.add("brand");
+        }
+        return names.isEmpty() ? "none" : String.join("+", names);
+    }
+}
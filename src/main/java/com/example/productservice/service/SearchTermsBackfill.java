@@ -0,0 +1,64 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Fills in searchTerms for products written before prefix search existed.
+ * Runs once after startup and only touches documents that are missing the field.
+ */
+@Component
+@Slf4j
+// Left to the servlet deployment, which owns the product writes
+@Profile("!reactive")
+public class SearchTermsBackfill {
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public SearchTermsBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Query query = new Query(Criteria.where("searchTerms").exists(false));
+        query.fields().include("name", "brand", "categoryName", "tags");
+
+        int updated = 0;
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            int pending = 0;
+            for (Product product : (Iterable<Product>) products::iterator) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(product.getId())),
+                        Update.update("searchTerms", SearchTokenizer.terms(product)));
+                if (++pending == BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += bulk.execute().getModifiedCount();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not backfill product search terms", ex);
+            return;
+        }
+        if (updated > 0) {
+            log.info("Backfilled search terms for {} products", updated);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Splits product text into the lower-case terms stored in {@code Product.searchTerms}.
+ * Keyword prefixes are tokenized the same way so they line up with the stored terms.
+ */
+public final class SearchTokenizer {
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokenizer() {
+    }
+
+    public static Set<String> terms(Product product) {
+        Set<String> terms = new TreeSet<>();
+        addTokens(terms, product.getName());
+        addTokens(terms, product.getBrand());
+        addTokens(terms, product.getCategoryName());
+        if (product.getTags() != null) {
+            product.getTags().forEach(tag -> addTokens(terms, tag));
+        }
+        return terms;
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new TreeSet<>();
+        addTokens(tokens, text);
+        return tokens;
+    }
+
+    private static void addTokens(Set<String> tokens, String text) {
+        if (text == null) {
+            return;
+        }
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+    }
+}
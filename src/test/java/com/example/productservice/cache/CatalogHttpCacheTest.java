@@ -0,0 +1,101 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.service.ProductProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogHttpCacheTest {
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @Test
+    public void testSearchEtag_SharedAcrossInstancesAndReloadedAfterWrite() {
+        Product newest = new Product();
+        newest.setUpdatedAt(new Date(1_700_000_000_000L));
+        when(mongoTemplate.findOne(any(Query.class), eq(Product.class))).thenReturn(newest);
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(42L, 42L, 41L);
+        CatalogHttpCache first = cache();
+        CatalogHttpCache second = cache();
+
+        String etag = first.searchEtag();
+        assertEquals(etag, second.searchEtag());
+        assertEquals(etag, first.searchEtag());
+
+        first.onProductsChanged(ProductsChangedEvent.of("p1"));
+        assertNotEquals(etag, first.searchEtag());
+        verify(mongoTemplate, times(3)).estimatedCount(Product.class);
+    }
+
+    @Test
+    public void testCategoriesEtag_HashesContent() {
+        CatalogHttpCache cache = cache();
+
+        String etag = cache.categoriesEtag(List.of(category("decks", Set.of("width"))));
+
+        assertEquals(etag, cache().categoriesEtag(List.of(category("decks", Set.of("width")))));
+        assertNotEquals(etag, cache.categoriesEtag(List.of(category("decks", Set.of("length")))));
+    }
+
+    @Test
+    public void testProductEtag_DependsOnProjection() {
+        Product product = new Product();
+        product.setId("p1");
+        product.setVersion(3L);
+        product.setUpdatedAt(new Date(1_700_000_000_000L));
+
+        String full = CatalogHttpCache.productEtag(product, ProductProjection.FULL);
+
+        assertNotEquals(full, CatalogHttpCache.productEtag(product, ProductProjection.of("name", null)));
+        assertNotEquals(CatalogHttpCache.productEtag(product, ProductProjection.of("name", null)),
+                CatalogHttpCache.productEtag(product, ProductProjection.of("name,price", null)));
+        assertEquals(CatalogHttpCache.productEtag(product, ProductProjection.of("price,name", null)),
+                CatalogHttpCache.productEtag(product, ProductProjection.of("name,price", null)));
+    }
+
+    @Test
+    public void testKnownProductEtag_OnlyTrustedWithClusterWideInvalidation() {
+        Product product = new Product();
+        product.setId("p1");
+        product.setVersion(3L);
+        product.setUpdatedAt(new Date(1_700_000_000_000L));
+        CatalogHttpCache cache = cache();
+
+        String etag = cache.rememberProduct(product, ProductProjection.SUMMARY);
+
+        assertEquals(CatalogHttpCache.productEtag(product, ProductProjection.SUMMARY), etag);
+        assertNull(cache.knownProductEtag("p1", ProductProjection.SUMMARY));
+    }
+
+    private CatalogHttpCache cache() {
+        return new CatalogHttpCache(mongoTemplate, new ObjectMapper(),
+                new DefaultListableBeanFactory().getBeanProvider(ProductChangeListener.class), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), 100, Duration.ofSeconds(60), Duration.ZERO, Duration.ofMinutes(5));
+    }
+
+    private static Category category(String name, Set<String> requiredAttributes) {
+        Category category = new Category();
+        category.setName(name);
+        category.setRequiredAttributes(requiredAttributes);
+        return category;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Category;
+import com.example.productservice.repository.CategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCacheTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testGet_ServedFromWarmSnapshot() {
+        Category decks = createCategory("decks");
+        when(categoryRepository.findAll()).thenReturn(List.of(decks));
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 100, Duration.ofSeconds(5));
+
+        cache.warm();
+
+        assertSame(decks, cache.get("decks").orElseThrow());
+        assertSame(decks, cache.get("decks").orElseThrow());
+        verify(categoryRepository, never()).findByName("decks");
+        assertEquals(2, meterRegistry.counter("category.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    public void testGet_MissLoadsAndCachesCategory() {
+        Category wheels = createCategory("wheels");
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.findByName("wheels")).thenReturn(Optional.of(wheels));
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 100, Duration.ofSeconds(5));
+        cache.warm();
+
+        cache.get("wheels");
+        cache.get("wheels");
+
+        verify(categoryRepository, times(1)).findByName("wheels");
+        assertEquals(1, meterRegistry.counter("category.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    public void testPut_VisibleInAll() {
+        when(categoryRepository.findAll()).thenReturn(List.of(createCategory("decks")));
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 100, Duration.ofSeconds(5));
+        cache.warm();
+
+        cache.put(createCategory("trucks"));
+
+        assertEquals(2, cache.all().size());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testAll_FallsBackToDatabaseWhenOverCapacity() {
+        List<Category> categories = List.of(createCategory("decks"), createCategory("wheels"));
+        when(categoryRepository.findAll()).thenReturn(categories);
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 1, Duration.ofSeconds(5));
+        cache.warm();
+
+        assertEquals(categories, cache.all());
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void testGet_UnknownCategory() {
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.findByName("unknown")).thenReturn(Optional.empty());
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 100, Duration.ofSeconds(5));
+        cache.warm();
+
+        assertTrue(cache.get("unknown").isEmpty());
+        assertTrue(cache.get("unknown").isEmpty());
+        verify(categoryRepository, times(1)).findByName("unknown");
+    }
+
+    @Test
+    public void testPut_ForgetsEarlierMiss() {
+        Category trucks = createCategory("trucks");
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.findByName("trucks")).thenReturn(Optional.empty());
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 100, Duration.ofSeconds(5));
+        cache.warm();
+        cache.get("trucks");
+
+        cache.put(trucks);
+
+        assertSame(trucks, cache.get("trucks").orElseThrow());
+    }
+
+    @Test
+    public void testPut_AtCapacityMarksSnapshotIncomplete() {
+        List<Category> categories = List.of(createCategory("decks"), createCategory("wheels"));
+        when(categoryRepository.findAll()).thenReturn(List.of(categories.get(0))).thenReturn(categories);
+        CategoryCache cache = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 1, Duration.ofSeconds(5));
+        cache.warm();
+
+        cache.put(categories.get(1));
+
+        assertEquals(categories, cache.all());
+    }
+
+    @Test
+    public void testRefresh_KeepsCategoriesPutWhileLoading() {
+        Category decks = createCategory("decks");
+        Category trucks = createCategory("trucks");
+        CategoryCache[] holder = new CategoryCache[1];
+        when(categoryRepository.findAll()).thenAnswer(invocation -> {
+            // the save lands after findAll read the collection
+            holder[0].put(trucks);
+            return List.of(decks);
+        });
+        holder[0] = new CategoryCache(categoryRepository, meterRegistry, Duration.ofMinutes(10), 100, Duration.ofSeconds(5));
+
+        holder[0].refresh();
+
+        assertSame(trucks, holder[0].get("trucks").orElseThrow());
+        assertEquals(Set.of(decks, trucks), Set.copyOf(holder[0].all()));
+        verify(categoryRepository, never()).findByName("trucks");
+    }
+
+    private Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        category.setRequiredAttributes(Set.of("brand"));
+        return category;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.dto.ProductCacheSettingsDTO;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProductCache cache = new ProductCache(registry, true, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+    @Test
+    public void testGet_LoadsOnceAndRecordsHits() {
+        AtomicInteger loads = new AtomicInteger();
+        Product product = product("p1");
+
+        cache.get("p1", () -> {
+            loads.incrementAndGet();
+            return product;
+        });
+        assertSame(product, cache.get("p1", () -> {
+            loads.incrementAndGet();
+            return product;
+        }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "product").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void testGet_DoesNotCacheMissingProducts() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        cache.get("missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGet_DropsDocumentLoadedBeforeAWrite() {
+        Product stale = product("p1");
+
+        cache.get("p1", () -> {
+            cache.onProductsChanged(ProductsChangedEvent.stockChanged(Set.of("p1")));
+            return stale;
+        });
+
+        Product fresh = product("p1");
+        assertSame(fresh, cache.get("p1", () -> fresh));
+    }
+
+    @Test
+    public void testUpdate_DisablingClearsAndBypasses() {
+        cache.get("p1", () -> product("p1"));
+        ProductCacheSettingsDTO settings = new ProductCacheSettingsDTO();
+        settings.setEnabled(false);
+        settings.setMaxSizeBytes(4096L);
+
+        cache.update(settings);
+
+        assertFalse(cache.isEnabled());
+        assertEquals(0, cache.status("off").getEntries());
+        assertEquals(4096L, cache.status("off").getMaxSizeBytes());
+    }
+
+    @Test
+    public void testEstimateSize_GrowsWithContent() {
+        Product small = product("p1");
+        Product large = product("p2");
+        large.setDescription("x".repeat(10_000));
+
+        assertTrue(ProductCache.estimateSize(large) > ProductCache.estimateSize(small) + 20_000);
+    }
+
+    private static Product product(String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Deck");
+        product.setAvailableQuantity(5);
+        return product;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.service.ProductProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeListenerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    public void testApply_PublishesChangedDocument() {
+        ProductChangeListener listener = new ProductChangeListener(mongoTemplate, eventPublisher, "change-stream", Duration.ofSeconds(5));
+        ObjectId id = new ObjectId();
+
+        listener.apply(change(new BsonDocument("_id", new BsonObjectId(id))));
+
+        verify(eventPublisher).publishEvent(ProductsChangedEvent.of(id.toHexString()));
+    }
+
+    @Test
+    public void testApply_EventWithoutDocumentKeyChangesEverything() {
+        ProductChangeListener listener = new ProductChangeListener(mongoTemplate, eventPublisher, "change-stream", Duration.ofSeconds(5));
+
+        listener.apply(change(null));
+
+        verify(eventPublisher).publishEvent(ProductsChangedEvent.all());
+    }
+
+    @Test
+    public void testPoll_PublishesRecentlyUpdatedProducts() {
+        ProductChangeListener listener = new ProductChangeListener(mongoTemplate, eventPublisher, "polling", Duration.ofSeconds(5));
+        Product changed = new Product();
+        changed.setId("p1");
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(changed));
+
+        listener.poll();
+        listener.poll();
+
+        verify(eventPublisher).publishEvent(ProductsChangedEvent.all());
+        verify(eventPublisher).publishEvent(ProductsChangedEvent.of("p1"));
+    }
+
+    @Test
+    public void testApply_RemoteChangeForgetsRememberedProductEtag() {
+        CatalogHttpCache catalogHttpCache = new CatalogHttpCache(mongoTemplate, new ObjectMapper(), changeStream(), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), 100, Duration.ofSeconds(60), Duration.ZERO, Duration.ofMinutes(5));
+        ProductChangeListener listener = new ProductChangeListener(mongoTemplate,
+                event -> catalogHttpCache.onProductsChanged((ProductsChangedEvent) event), "change-stream", Duration.ofSeconds(5));
+        ObjectId id = new ObjectId();
+        Product product = new Product();
+        product.setId(id.toHexString());
+        product.setVersion(3L);
+        product.setUpdatedAt(new Date());
+        String etag = catalogHttpCache.rememberProduct(product, ProductProjection.FULL);
+        assertEquals(etag, catalogHttpCache.knownProductEtag(product.getId(), ProductProjection.FULL));
+
+        listener.apply(change(new BsonDocument("_id", new BsonObjectId(id))));
+
+        assertNull(catalogHttpCache.knownProductEtag(product.getId(), ProductProjection.FULL));
+    }
+
+    private static ObjectProvider<ProductChangeListener> changeStream() {
+        ProductChangeListener active = mock(ProductChangeListener.class);
+        when(active.getActiveMode()).thenReturn("change-stream");
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("productChangeListener", active);
+        return beanFactory.getBeanProvider(ProductChangeListener.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamDocument<Document> change(BsonDocument documentKey) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getDocumentKey()).thenReturn(documentKey);
+        return change;
+    }
+}
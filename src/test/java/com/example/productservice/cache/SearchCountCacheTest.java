@@ -0,0 +1,68 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.event.ProductsChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCountCacheTest {
+
+    private final SearchCountCache cache = new SearchCountCache(Duration.ofMinutes(1), 100, 1000);
+
+    @Test
+    public void testGet_ReusesCountForEquivalentFilters() {
+        AtomicInteger loads = new AtomicInteger();
+        ProductSearchFilter filter = ProductSearchFilter.of("  skate ", "decks,wheels", 10.0, null, "", "");
+        ProductSearchFilter reordered = ProductSearchFilter.of("skate", "wheels,decks,", 10.0, null, "", "");
+
+        assertEquals(7, cache.get(filter, CountMode.EXACT, () -> loads.incrementAndGet() + 6));
+        assertEquals(7, cache.get(reordered, CountMode.EXACT, () -> loads.incrementAndGet() + 6));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testGet_SeparatesCountModes() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "decks", null, null, "", "");
+
+        assertEquals(5, cache.get(filter, CountMode.EXACT, () -> 5));
+        assertEquals(3, cache.get(filter, CountMode.ESTIMATED, () -> 3));
+    }
+
+    @Test
+    public void testIsEstimate_OnlyMetadataOrCappedCounts() {
+        ProductSearchFilter filtered = ProductSearchFilter.of(null, "decks", null, null, "", "");
+        ProductSearchFilter unfiltered = ProductSearchFilter.of(null, "", null, null, "", "");
+
+        assertFalse(cache.isEstimate(filtered, CountMode.ESTIMATED, 999));
+        assertTrue(cache.isEstimate(filtered, CountMode.ESTIMATED, 1000));
+        assertTrue(cache.isEstimate(unfiltered, CountMode.ESTIMATED, 5));
+        assertFalse(cache.isEstimate(filtered, CountMode.EXACT, 5000));
+    }
+
+    @Test
+    public void testOnProductsChanged_InvalidatesCounts() {
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "decks", null, null, "", "");
+        cache.get(filter, CountMode.EXACT, () -> 5);
+
+        cache.onProductsChanged(ProductsChangedEvent.of("productId"));
+
+        assertEquals(6, cache.get(filter, CountMode.EXACT, () -> 6));
+    }
+
+    @Test
+    public void testGet_ExpiredEntryIsReloaded() {
+        SearchCountCache expiring = new SearchCountCache(Duration.ZERO, 100, 1000);
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "", null, null, "", "");
+
+        expiring.get(filter, CountMode.EXACT, () -> 5);
+
+        assertEquals(6, expiring.get(filter, CountMode.EXACT, () -> 6));
+    }
+}
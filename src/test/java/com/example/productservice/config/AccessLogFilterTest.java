@@ -0,0 +1,26 @@
+package com.example.productservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccessLogFilterTest {
+    private final AccessLogFilter filter = new AccessLogFilter(0.0, Duration.ofMillis(500));
+
+    @Test
+    public void testServerErrorsAndSlowRequestsAreAlwaysLogged() {
+        assertTrue(filter.shouldLog(503, TimeUnit.MILLISECONDS.toNanos(5)));
+        assertTrue(filter.shouldLog(200, TimeUnit.MILLISECONDS.toNanos(750)));
+    }
+
+    @Test
+    public void testFastRequestsAreSampled() {
+        assertFalse(filter.shouldLog(200, TimeUnit.MILLISECONDS.toNanos(5)));
+        assertFalse(filter.shouldLog(404, TimeUnit.MILLISECONDS.toNanos(5)));
+        assertTrue(new AccessLogFilter(1.0, Duration.ofMillis(500)).shouldLog(200, TimeUnit.MILLISECONDS.toNanos(5)));
+    }
+}
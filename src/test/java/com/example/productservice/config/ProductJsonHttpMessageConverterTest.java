@@ -0,0 +1,69 @@
+package com.example.productservice.config;
+
+import com.example.productservice.cache.ProductJsonCache;
+import com.example.productservice.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductJsonHttpMessageConverterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductJsonHttpMessageConverter converter = new ProductJsonHttpMessageConverter(objectMapper, registry,
+            new ProductJsonCache(registry, true, DataSize.ofMegabytes(1)));
+
+    @Test
+    public void testWrite_ReusesEncodingUntilProductChanges() throws Exception {
+        Product product = product();
+
+        String first = write(product);
+        String second = write(product);
+        product.setAvailableQuantity(2);
+        String afterStockChange = write(product);
+
+        assertEquals(objectMapper.writeValueAsString(product()), first);
+        assertEquals(first, second);
+        assertEquals(objectMapper.writeValueAsString(product), afterStockChange);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "product-json").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void testWrite_KeepsProjectionsApart() throws Exception {
+        Product full = product();
+        Product summary = product();
+        summary.setDescription(null);
+        summary.setImages(new ArrayList<>(List.of("a.png")));
+
+        write(full);
+
+        assertEquals(objectMapper.writeValueAsString(summary), write(summary));
+    }
+
+    private String write(Object body) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(body, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsString();
+    }
+
+    private static Product product() {
+        Product product = new Product();
+        product.setId("p1");
+        product.setName("Deck");
+        product.setDescription("Maple");
+        product.setAvailableQuantity(5);
+        product.setImages(new ArrayList<>(List.of("a.png", "b.png")));
+        product.setVersion(1L);
+        product.setUpdatedAt(new Date(1_700_000_000_000L));
+        return product;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.productservice.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestValidationFilterTest {
+    private static final String SECRET = "bfc80827f07c171a3e1f0661a1abfd52ab1fec954283772e19c1a673efa58e41";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestValidationFilter filter = new RequestValidationFilter(meterRegistry, 100);
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testDoFilter_ReusesVerifiedToken() throws Exception {
+        String token = token(new Date(System.currentTimeMillis() + 60_000));
+
+        Authentication first = filterWith(token);
+        Authentication second = filterWith(token);
+
+        assertSame(first, second);
+        assertEquals("user-1", second.getName());
+        assertEquals("Admin", second.getAuthorities().iterator().next().getAuthority());
+        assertEquals(1.0, meterRegistry.counter("jwt.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("jwt.cache.requests", "result", "miss").count());
+        assertEquals(1L, meterRegistry.timer("jwt.verification").count());
+    }
+
+    @Test
+    public void testDoFilter_DoesNotCacheTokensWithoutExpiry() throws Exception {
+        String token = token(null);
+
+        filterWith(token);
+        filterWith(token);
+
+        assertEquals(0.0, meterRegistry.counter("jwt.cache.requests", "result", "hit").count());
+        assertEquals(2L, meterRegistry.timer("jwt.verification").count());
+    }
+
+    @Test
+    public void testDoFilter_RejectsExpiredAndForgedTokens() {
+        String expired = token(new Date(System.currentTimeMillis() - 1_000));
+        String forged = Jwts.builder()
+                .subject("user-1")
+                .claim("authorities", List.of("Admin"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Jwts.SIG.HS256.key().build())
+                .compact();
+
+        assertThrows(BadCredentialsException.class, () -> filterWith(expired));
+        assertThrows(BadCredentialsException.class, () -> filterWith(forged));
+    }
+
+    private Authentication filterWith(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/search");
+        request.setCookies(new Cookie("accessToken", token));
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static String token(Date expiration) {
+        return Jwts.builder()
+                .subject("user-1")
+                .claim("authorities", List.of("Admin"))
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+}
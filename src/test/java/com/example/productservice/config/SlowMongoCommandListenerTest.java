@@ -0,0 +1,52 @@
+package com.example.productservice.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SlowMongoCommandListenerTest {
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Test
+    public void testReadCommandsAreTrackedUntilTheyComplete() {
+        SlowMongoCommandListener listener = new SlowMongoCommandListener(Duration.ofMillis(100));
+        BsonDocument aggregate = new BsonDocument("aggregate", new BsonString("products"));
+
+        listener.commandStarted(started(1, "aggregate", aggregate));
+        listener.commandStarted(started(2, "insert", new BsonDocument("insert", new BsonString("products"))));
+        assertEquals(1, listener.inFlightCount());
+
+        listener.commandSucceeded(succeeded(1, "aggregate", TimeUnit.MILLISECONDS.toNanos(250)));
+        listener.commandSucceeded(succeeded(2, "insert", TimeUnit.MILLISECONDS.toNanos(1)));
+        assertEquals(0, listener.inFlightCount());
+    }
+
+    @Test
+    public void testZeroThresholdCapturesNothing() {
+        SlowMongoCommandListener listener = new SlowMongoCommandListener(Duration.ZERO);
+
+        listener.commandStarted(started(1, "find", new BsonDocument("find", new BsonString("products"))));
+
+        assertEquals(0, listener.inFlightCount());
+    }
+
+    private static CommandStartedEvent started(int requestId, String name, BsonDocument command) {
+        return new CommandStartedEvent(null, 1L, requestId, CONNECTION, "test", name, command);
+    }
+
+    private static CommandSucceededEvent succeeded(int requestId, String name, long elapsedNanos) {
+        return new CommandSucceededEvent(null, 1L, requestId, CONNECTION, "test", name, new BsonDocument(), elapsedNanos);
+    }
+}
@@ -1,33 +1,65 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.cache.CatalogHttpCache;
+import com.example.productservice.cache.ProductChangeListener;
+import com.example.productservice.config.EncodingConfig;
+import com.example.productservice.dto.BatchItem;
+import com.example.productservice.dto.CursorPage;
 import com.example.productservice.entity.Product;
+import com.example.productservice.exception.BaseExceptionHandler;
+import com.example.productservice.service.ProductBulkService;
+import com.example.productservice.service.ProductExportService;
+import com.example.productservice.service.ProductProjection;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.service.SearchExplainService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +70,20 @@ public class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private SearchExplainService searchExplainService;
+
+    @Mock
+    private ProductBulkService productBulkService;
+
+    @Mock
+    private ProductExportService productExportService;
+
+    @Spy
+    private CatalogHttpCache catalogHttpCache = new CatalogHttpCache(mock(MongoTemplate.class), new ObjectMapper(),
+            new DefaultListableBeanFactory().getBeanProvider(ProductChangeListener.class), Duration.ofMinutes(1), Duration.ofSeconds(1), 100,
+            Duration.ofSeconds(60), Duration.ZERO, Duration.ofMinutes(5));
+
     @InjectMocks
     private ProductController productController;
 
@@ -59,6 +105,148 @@ public class ProductControllerTest {
                 .andExpect(content().string("Added product successfully! Id is: " + productId));
     }
 
+    @Test
+    public void testSearchProducts_NotModifiedSkipsSearch() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+        String etag = catalogHttpCache.searchEtag();
+
+        mockMvc.perform(get("/api/products/search").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    public void testSearchProducts_SlimPageEnvelope() throws Exception {
+        Product product = createValidProduct();
+        when(productService.searchProducts(any(), anyString(), anyString(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(1, 1), 3));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+
+        mockMvc.perform(get("/api/products/search").param("page", "1").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(product.getName()))
+                .andExpect(jsonPath("$.number").value(1))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalPages").value(3))
+                .andExpect(jsonPath("$.pageable").doesNotExist())
+                .andExpect(jsonPath("$.facets").doesNotExist());
+    }
+
+    @Test
+    public void testGetProducts_BatchNegotiatesSmile() throws Exception {
+        when(productService.getProductsByIds(List.of("p1"), ProductProjection.FULL))
+                .thenReturn(List.of(BatchItem.of("p1", createValidProduct())));
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
+        new EncodingConfig(objectMapper).extendMessageConverters(converters);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setMessageConverters(converters.toArray(new HttpMessageConverter[0]))
+                .build();
+
+        byte[] body = mockMvc.perform(post("/api/products/batch")
+                        .accept("application/x-jackson-smile")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[\"p1\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("p1", new ObjectMapper(new SmileFactory()).readTree(body).get(0).get("id").asText());
+    }
+
+    @Test
+    public void testSearchProducts_ValidatesBeforeNotModified() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).setControllerAdvice(new BaseExceptionHandler()).build();
+
+        mockMvc.perform(get("/api/products/search").param("sortBy", "color").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/search").param("cursor", "not-a-cursor")
+                        .header(HttpHeaders.IF_NONE_MATCH, catalogHttpCache.searchEtag()))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    public void testSearchProducts_ReturnsEtag() throws Exception {
+        when(productService.searchProductsAfter(any(), anyString(), anyString(), any(), anyString(), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(), 10, null));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+
+        mockMvc.perform(get("/api/products/search").param("cursor", "").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogHttpCache.searchEtag()));
+    }
+
+    @Test
+    public void testGetProduct_RevalidatesAgainstStoredVersion() throws Exception {
+        Product product = createValidProduct();
+        product.setId("p1");
+        product.setVersion(3L);
+        product.setUpdatedAt(new Date(1_700_000_000_000L));
+        Product stamp = new Product();
+        stamp.setVersion(3L);
+        stamp.setUpdatedAt(product.getUpdatedAt());
+        when(productService.getProductById("p1", ProductProjection.FULL)).thenReturn(product);
+        when(productService.getProductVersion("p1")).thenReturn(stamp);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+
+        String etag = mockMvc.perform(get("/api/products/{id}", "p1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/products/{id}", "p1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // Without the change stream nothing tells this instance about writes elsewhere, so the version is read
+        stamp.setVersion(4L);
+        mockMvc.perform(get("/api/products/{id}", "p1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        verify(productService, times(2)).getProductById("p1", ProductProjection.FULL);
+        verify(productService, times(2)).getProductVersion("p1");
+    }
+
+    @Test
+    public void testGetProduct_SparseFieldsLeaveOutEtagFields() throws Exception {
+        ProductProjection projection = ProductProjection.of("name", null);
+        Product product = new Product();
+        product.setId("p1");
+        product.setName("Deck");
+        product.setVersion(3L);
+        product.setCreatedAt(new Date(1_600_000_000_000L));
+        product.setUpdatedAt(new Date(1_700_000_000_000L));
+        when(productService.getProductById("p1", projection)).thenReturn(product);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+
+        mockMvc.perform(get("/api/products/{id}", "p1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CatalogHttpCache.productEtag(product, projection)))
+                .andExpect(jsonPath("$.name").value("Deck"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andExpect(jsonPath("$.createdAt").doesNotExist())
+                .andExpect(jsonPath("$.updatedAt").doesNotExist());
+    }
+
+    @Test
+    public void testGetProducts_Batch() throws Exception {
+        Product product = createValidProduct();
+        product.setId("p1");
+        when(productService.getProductsByIds(List.of("p1", "p2"), ProductProjection.SUMMARY))
+                .thenReturn(List.of(BatchItem.of("p1", product), BatchItem.of("p2", null)));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+
+        mockMvc.perform(post("/api/products/batch").param("view", "summary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[\"p1\",\"p2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].value.id").value("p1"))
+                .andExpect(jsonPath("$[1].id").value("p2"))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].value").doesNotExist());
+    }
+
     private Product createValidProduct() {
         Product product = new Product();
         product.setName("ValidProductName");
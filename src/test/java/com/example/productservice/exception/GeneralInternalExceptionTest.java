@@ -0,0 +1,22 @@
+package com.example.productservice.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeneralInternalExceptionTest {
+
+    @Test
+    public void testClientErrorsHaveNoStackTrace() {
+        assertEquals(0, new GeneralInternalException("id does not exist", HttpStatus.NOT_FOUND).getStackTrace().length);
+        assertEquals(0, new GeneralInternalException("bad", HttpStatus.BAD_REQUEST).getStackTrace().length);
+    }
+
+    @Test
+    public void testServerErrorsKeepStackTrace() {
+        assertTrue(new GeneralInternalException("db down").getStackTrace().length > 0);
+        assertTrue(new GeneralInternalException("busy", HttpStatus.SERVICE_UNAVAILABLE).getStackTrace().length > 0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import com.example.productservice.service.ProductProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveProductHandlerTest {
+
+    @Mock
+    private ReactiveProductService productService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        ReactiveProductHandler handler = new ReactiveProductHandler(productService);
+        client = WebTestClient
+                .bindToRouterFunction(new ReactiveProductRouter().productRoutes(handler))
+                .handlerStrategies(HandlerStrategies.builder()
+                        .exceptionHandler(new ReactiveExceptionHandler(new ObjectMapper().findAndRegisterModules()))
+                        .build())
+                .build();
+    }
+
+    @Test
+    public void testSearchProducts_ReturnsPage() {
+        Product product = product("p1", "Deck");
+        when(productService.searchProducts(any(), eq("price"), eq("desc"), eq(CountMode.EXACT), any(ProductProjection.class),
+                eq(false), any()))
+                .thenReturn(Mono.just(new PageImpl<>(List.of(product), PageRequest.of(0, 10), 1)));
+
+        client.get().uri("/api/products/search?category=boards&sortBy=price&sortDirection=desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo("Deck")
+                .jsonPath("$.totalElements").isEqualTo(1);
+    }
+
+    @Test
+    public void testSearchProducts_CursorParamSelectsKeysetMode() {
+        when(productService.searchProductsAfter(any(), eq("name"), eq("asc"), any(ProductProjection.class), eq(""), eq(5)))
+                .thenReturn(Mono.just(new CursorPage<>(List.of(product("p1", "Deck")), 5, "next")));
+
+        client.get().uri("/api/products/search?cursor=&size=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nextCursor").isEqualTo("next")
+                .jsonPath("$.content[0].id").isEqualTo("p1");
+    }
+
+    @Test
+    public void testSearchProducts_InvalidParamsAreBadRequest() {
+        client.get().uri("/api/products/search?minPrice=cheap")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Invalid request");
+
+        client.get().uri("/api/products/search?size=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        client.get().uri("/api/products/search?sortBy=password")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    public void testGetProduct_NotFound() {
+        when(productService.getProductById(eq("missing"), any(ProductProjection.class)))
+                .thenReturn(Mono.error(new GeneralInternalException("id does not exist", HttpStatus.NOT_FOUND)));
+
+        client.get().uri("/api/products/missing")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("id does not exist");
+    }
+
+    @Test
+    public void testExportProducts_StreamsNdjson() {
+        when(productService.exportProducts(any(ProductProjection.class)))
+                .thenReturn(Flux.just(product("p1", "Deck"), product("p2", "Wheels")));
+
+        String body = client.get().uri("/api/products/export?view=summary")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertEquals(2, body.trim().split("\n").length);
+    }
+
+    private static Product product(String id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
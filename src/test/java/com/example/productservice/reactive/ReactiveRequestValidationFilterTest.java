@@ -0,0 +1,67 @@
+package com.example.productservice.reactive;
+
+import com.example.productservice.config.JwtAuthenticator;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReactiveRequestValidationFilterTest {
+    private static final String SECRET = "bfc80827f07c171a3e1f0661a1abfd52ab1fec954283772e19c1a673efa58e41";
+
+    private final ReactiveRequestValidationFilter filter =
+            new ReactiveRequestValidationFilter(new JwtAuthenticator(new SimpleMeterRegistry(), 100));
+
+    @Test
+    public void testFilter_AuthenticatesFromCookie() {
+        String token = Jwts.builder()
+                .subject("user-1")
+                .claim("authorities", List.of("Admin"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/search")
+                .cookie(new HttpCookie(JwtAuthenticator.COOKIE_NAME, token)));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+
+        filter.filter(exchange, ignored -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(seen::set)
+                .then()).block();
+
+        assertEquals("user-1", seen.get().getName());
+        assertNull(exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    public void testFilter_RejectsForgedToken() {
+        String forged = Jwts.builder()
+                .subject("user-1")
+                .claim("authorities", List.of("Admin"))
+                .signWith(Jwts.SIG.HS256.key().build())
+                .compact();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/products/search")
+                .cookie(new HttpCookie(JwtAuthenticator.COOKIE_NAME, forged)));
+
+        filter.filter(exchange, ignored -> {
+            throw new AssertionError("chain must not run");
+        }).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotListingServiceTest {
+    private static final ProductSearchFilter DECKS = ProductSearchFilter.of(null, "decks", null, null, "", "");
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10, Sort.by("price"));
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private HotListingService hotListings;
+
+    @BeforeEach
+    public void setUp() {
+        ExecutorService refresher = mock(ExecutorService.class);
+        lenient().doAnswer(invocation -> scheduled.add(invocation.getArgument(0)))
+                .when(refresher).execute(any());
+        hotListings = new HotListingService(mongoTemplate,
+                new MongoConcurrencyLimiter(new SimpleMeterRegistry(), 10, Duration.ofMillis(50)),
+                new ReadCoalescer(meterRegistry, Duration.ofSeconds(5)), meterRegistry,
+                List.of("price", "name"), 30, 10, Duration.ofMinutes(5), refresher);
+    }
+
+    @Test
+    public void testListingIsBuiltOnceThenServedFromMemory() {
+        stubListing(product("p1", "decks"), product("p2", "decks"));
+
+        Page<Product> first = hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE).orElseThrow();
+        Page<Product> second = hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE).orElseThrow();
+
+        assertEquals(2, first.getTotalElements());
+        assertEquals(first.getContent(), second.getContent());
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class));
+        assertEquals(1.0, meterRegistry.counter("hot.listing.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("hot.listing.requests", "result", "miss").count());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneBuild() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class))).thenAnswer(invocation -> {
+            building.countDown();
+            release.await();
+            return new AggregationResults<>(List.of(product("p1", "decks")), new Document());
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Page<Product>> leader = callers.submit(
+                    () -> hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE).orElseThrow());
+            building.await();
+            Future<Page<Product>> follower = callers.submit(
+                    () -> hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE).orElseThrow());
+            while (meterRegistry.counter("product.read.coalesced", "kind", "hot-listing", "outcome", "collapsed").count() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals(leader.get().getContent(), follower.get().getContent());
+            verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOnlyPlainCategoryListingsQualify() {
+        assertTrue(hotListings.page(DECKS.withKeyword("pro"), "price", "asc", ProductProjection.FULL, FIRST_PAGE).isEmpty());
+        assertTrue(hotListings.page(DECKS, "createdAt", "asc", ProductProjection.FULL, FIRST_PAGE).isEmpty());
+        assertTrue(hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, PageRequest.of(3, 10)).isEmpty());
+    }
+
+    @Test
+    public void testWriteToAnotherCategoryReturnsListingToServiceWithoutRebuild() {
+        stubListing(product("p1", "decks"));
+        hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE);
+
+        hotListings.onProductsChanged(ProductsChangedEvent.of("w1"));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product("w1", "wheels")));
+        scheduled.forEach(Runnable::run);
+        hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE);
+
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class));
+    }
+
+    @Test
+    public void testWriteToTheListedCategoryRebuildsIt() {
+        stubListing(product("p1", "decks"));
+        hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE);
+
+        hotListings.onProductsChanged(ProductsChangedEvent.of("p9"));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product("p9", "decks")));
+        scheduled.forEach(Runnable::run);
+        hotListings.page(DECKS, "price", "asc", ProductProjection.FULL, FIRST_PAGE);
+
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class));
+        assertEquals(1.0, meterRegistry.counter("hot.listing.requests", "result", "hit").count());
+    }
+
+    private void stubListing(Product... products) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(products), new Document()));
+    }
+
+    private static Product product(String id, String category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategoryName(category);
+        return product;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.productservice.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LegacyIndexCleanupTest {
+
+    @Test
+    public void testLegacyIndexes_DropsOnlyReplacedSingleFieldIndexes() {
+        List<IndexInfo> indexes = List.of(
+                index("_id_", new Document("_id", 1)),
+                index("name", new Document("name", 1)),
+                index("name_id", new Document("name", 1).append("_id", 1)),
+                index("brand", new Document("brand", 1)),
+                index("brand_name", new Document("brand", 1).append("name", 1).append("_id", 1)),
+                // replacement not built yet, keep it
+                index("categoryName", new Document("categoryName", 1)));
+
+        assertEquals(List.of("brand", "name"), LegacyIndexCleanup.legacyIndexes(indexes));
+    }
+
+    @Test
+    public void testLegacyIndexes_KeepsIndexesThatOnlyShareTheName() {
+        List<IndexInfo> indexes = List.of(
+                index("name", new Document("name", 1).append("price", 1)),
+                index("name_id", new Document("name", 1).append("_id", 1)));
+
+        assertEquals(List.of(), LegacyIndexCleanup.legacyIndexes(indexes));
+    }
+
+    private static IndexInfo index(String name, Document key) {
+        return IndexInfo.indexInfoOf(new Document("name", name).append("key", key));
+    }
+}
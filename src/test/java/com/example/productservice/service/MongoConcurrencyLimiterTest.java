@@ -0,0 +1,62 @@
+package com.example.productservice.service;
+
+import com.example.productservice.exception.GeneralInternalException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MongoConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoConcurrencyLimiter limiter = new MongoConcurrencyLimiter(meterRegistry, 1, Duration.ofMillis(20));
+
+    @Test
+    public void testCall_RejectsWith503WhenSaturated() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> limiter.run(() -> {
+                holding.countDown();
+                await(release);
+            }));
+            holding.await(5, TimeUnit.SECONDS);
+
+            assertEquals(1.0, meterRegistry.get("mongo.limiter.in-flight").gauge().value());
+            GeneralInternalException exception = assertThrows(GeneralInternalException.class, () -> limiter.call(() -> "late"));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+            assertEquals(1.0, meterRegistry.counter("mongo.limiter.rejected").count());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertEquals("free", limiter.call(() -> "free"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCall_NestedCallsReuseThePermit() {
+        assertEquals("inner", limiter.call(() -> limiter.call(() -> "inner")));
+        assertEquals(0.0, meterRegistry.get("mongo.limiter.in-flight").gauge().value());
+        assertEquals(1L, meterRegistry.timer("mongo.limiter.wait").count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.productservice.service;
+
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MongoReadRoutingTest {
+    private final MongoReadRouting routing = new MongoReadRouting("secondaryPreferred", "secondary",
+            Duration.ofSeconds(90));
+
+    @AfterEach
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testSearchAndExportUseConfiguredPreferenceWithStaleness() {
+        ReadPreference search = routing.forSearch();
+
+        assertEquals(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS), search);
+        assertEquals(ReadPreference.secondary(90, TimeUnit.SECONDS), routing.forExport());
+    }
+
+    @Test
+    public void testProductReadsUseThePrimaryWhereverTheWriteWent() {
+        assertEquals(ReadPreference.primary(), routing.forProducts());
+    }
+
+    @Test
+    public void testAdminsReadFromPrimary() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "admin", null, List.of(new SimpleGrantedAuthority("Admin"))));
+
+        assertEquals(ReadPreference.primary(), routing.forSearch());
+        assertEquals(ReadPreference.primary(), routing.forExport());
+    }
+}
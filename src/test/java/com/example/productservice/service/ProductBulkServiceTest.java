@@ -0,0 +1,152 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.BulkIngestReport;
+import com.example.productservice.entity.Category;
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkServiceTest {
+    private static final String VALID = "{\"name\":\"Deck\",\"brand\":\"Acme\",\"price\":50.0,\"availableQuantity\":3,"
+            + "\"attributes\":{\"width\":\"8\"}}";
+    private static final String MISSING_ATTRIBUTE = "{\"name\":\"Deck\",\"brand\":\"Acme\",\"price\":50.0,\"availableQuantity\":3,"
+            + "\"attributes\":{}}";
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private ProductBulkService productBulkService;
+
+    @BeforeEach
+    public void setUp() {
+        productBulkService = new ProductBulkService(categoryService, mongoTemplate, new ObjectMapper(), validator,
+                eventPublisher, 2, 4);
+        Category category = new Category();
+        category.setName("decks");
+        category.setRequiredAttributes(Set.of("width"));
+        lenient().when(categoryService.getCategoryByName("decks")).thenReturn(category);
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+        lenient().when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @Test
+    public void testIngestNdjson_ReportsEachItem() throws Exception {
+        String body = VALID + "\n" + MISSING_ATTRIBUTE + "\n{not json\n\n" + VALID + "\n";
+
+        BulkIngestReport report = productBulkService.ingestNdjson(stream(body), "Decks");
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getInserted());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of("inserted", "failed", "failed", "inserted"),
+                report.getItems().stream().map(BulkIngestReport.ItemResult::getStatus).toList());
+        assertNotNull(report.getItems().get(0).getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testIngestJsonArray_WritesInBatches() throws Exception {
+        String body = "[" + VALID + "," + VALID + "," + VALID + "]";
+
+        BulkIngestReport report = productBulkService.ingestJsonArray(stream(body), "decks");
+
+        assertEquals(3, report.getInserted());
+        ArgumentCaptor<List<Product>> batches = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(2)).insert(batches.capture());
+        verify(bulkOperations, times(2)).execute();
+        assertEquals("decks", batches.getAllValues().get(0).get(0).getCategoryName());
+    }
+
+    @Test
+    public void testIngestJsonArray_ReportsNonObjectItems() throws Exception {
+        String body = "[" + VALID + ",42,[" + VALID + "]," + VALID + "]";
+
+        BulkIngestReport report = productBulkService.ingestJsonArray(stream(body), "decks");
+
+        assertEquals(4, report.getReceived());
+        assertEquals(2, report.getInserted());
+        assertEquals(List.of("inserted", "failed", "failed", "inserted"),
+                report.getItems().stream().map(BulkIngestReport.ItemResult::getStatus).toList());
+    }
+
+    @Test
+    public void testIngestJsonArray_StopsAtMalformedContentWithPartialReport() throws Exception {
+        for (String body : List.of("[" + VALID, "[" + VALID + "] " + VALID, "[" + VALID + "]]", "[" + VALID + ",{\"name\":")) {
+            BulkIngestReport report = productBulkService.ingestJsonArray(stream(body), "decks");
+
+            assertEquals(1, report.getInserted(), body);
+            assertNotNull(report.getError(), body);
+        }
+        verify(bulkOperations, times(4)).execute();
+    }
+
+    @Test
+    public void testIngestNdjson_CapsItemsButCountsEverything() throws Exception {
+        String body = String.join("\n", List.of(VALID, VALID, VALID, MISSING_ATTRIBUTE, VALID, VALID));
+
+        BulkIngestReport report = productBulkService.ingestNdjson(stream(body), "decks");
+
+        assertEquals(6, report.getReceived());
+        assertEquals(5, report.getInserted());
+        assertEquals(1, report.getFailed());
+        assertEquals(4, report.getItems().size());
+        assertTrue(report.isItemsTruncated());
+    }
+
+    @Test
+    public void testIngestNdjson_UnknownCategoryLookedUpOnce() throws Exception {
+        when(categoryService.getCategoryByName(anyString()))
+                .thenThrow(new GeneralInternalException("Category name not found", HttpStatus.NOT_FOUND));
+
+        BulkIngestReport report = productBulkService.ingestNdjson(stream(VALID + "\n" + VALID), "wheels");
+
+        assertEquals(2, report.getFailed());
+        verify(categoryService, times(1)).getCategoryByName(eq("wheels"));
+        verify(eventPublisher, times(0)).publishEvent(any());
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
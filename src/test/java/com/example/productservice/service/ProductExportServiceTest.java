@@ -0,0 +1,92 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ExportFormat;
+import com.example.productservice.entity.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testExportProducts_Ndjson() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class)))
+                .thenReturn(Stream.of(createProduct("a"), createProduct("b"), createProduct("c")));
+        ProductExportService exportService = new ProductExportService(mongoTemplate, ProductServiceTest.READ_ROUTING, objectMapper, 500, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportProducts(out, ExportFormat.NDJSON, ProductProjection.FULL);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("b", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    public void testExportProducts_JsonArrayWithProjection() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class)))
+                .thenReturn(Stream.of(createProduct("a"), createProduct("b")));
+        ProductExportService exportService = new ProductExportService(mongoTemplate, ProductServiceTest.READ_ROUTING, objectMapper, 500, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportProducts(out, ExportFormat.JSON, ProductProjection.of("name,price", null));
+
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, array.size());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Product.class));
+        assertEquals(2, query.getValue().getFieldsObject().size());
+    }
+
+    @Test
+    public void testExportProducts_SmileArray() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class)))
+                .thenReturn(Stream.of(createProduct("a"), createProduct("b")));
+        ProductExportService exportService = new ProductExportService(mongoTemplate, ProductServiceTest.READ_ROUTING, objectMapper, 500, 100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportProducts(out, ExportFormat.SMILE, ProductProjection.FULL);
+
+        JsonNode array = new ObjectMapper(new SmileFactory()).readTree(out.toByteArray());
+        assertEquals("b", array.get(1).get("name").asText());
+    }
+
+    @Test
+    public void testExportFormat_NegotiatesFromAccept() {
+        assertEquals(ExportFormat.CBOR, ExportFormat.negotiate(null, MediaType.parseMediaTypes("application/cbor")));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.negotiate(null, MediaType.parseMediaTypes("*/*")));
+        assertEquals(ExportFormat.JSON, ExportFormat.negotiate("json", MediaType.parseMediaTypes("application/cbor")));
+    }
+
+    private Product createProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand("Acme");
+        product.setPrice(10.0);
+        product.setAvailableQuantity(1);
+        return product;
+    }
+}
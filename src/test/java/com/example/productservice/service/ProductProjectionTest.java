@@ -0,0 +1,72 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import com.example.productservice.exception.GeneralInternalException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductProjectionTest {
+
+    @Test
+    public void testOf_NamedViews() {
+        assertSame(ProductProjection.SUMMARY, ProductProjection.of(null, "Summary"));
+        assertSame(ProductProjection.FULL, ProductProjection.of("", "detail"));
+        assertSame(ProductProjection.FULL, ProductProjection.of(null, null));
+    }
+
+    @Test
+    public void testOf_RejectsFieldsWithViewAndUnknownView() {
+        GeneralInternalException both = assertThrows(GeneralInternalException.class,
+                () -> ProductProjection.of("name", "summary"));
+        GeneralInternalException unknown = assertThrows(GeneralInternalException.class,
+                () -> ProductProjection.of(null, "compact"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, both.getHttpStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, unknown.getHttpStatus());
+    }
+
+    @Test
+    public void testApplyTo_SlicesImagesForSummary() {
+        Query query = ProductProjection.SUMMARY.applyTo(new Query());
+
+        assertEquals(1, query.getFieldsObject().get("name"));
+        assertEquals(new Document("$slice", 1), query.getFieldsObject().get("images"));
+        assertFalse(query.getFieldsObject().containsKey("id"));
+    }
+
+    @Test
+    public void testOf_IdOnlyStillProjects() {
+        ProductProjection projection = ProductProjection.of("id", null);
+
+        assertEquals(List.of("id"), projection.getFields());
+        assertEquals(1, projection.applyTo(new Query()).getFieldsObject().get("id"));
+    }
+
+    @Test
+    public void testProject_MatchesSummaryInMemory() {
+        Product product = new Product();
+        product.setId("p1");
+        product.setName("Deck");
+        product.setDescription("Maple");
+        product.setImages(new ArrayList<>(List.of("a.png", "b.png")));
+
+        Product summary = ProductProjection.SUMMARY.project(product);
+
+        assertEquals("p1", summary.getId());
+        assertEquals("Deck", summary.getName());
+        assertEquals(List.of("a.png"), summary.getImages());
+        assertNull(summary.getDescription());
+        assertSame(product, ProductProjection.FULL.project(product));
+    }
+}
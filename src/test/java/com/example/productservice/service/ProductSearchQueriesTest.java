@@ -0,0 +1,104 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.entity.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchQueriesTest {
+
+    @Test
+    public void testTextCriteria_UsesWholeWordsOnly() {
+        ProductSearchFilter filter = ProductSearchFilter.of("maple skate*", "", null, null, "", "");
+
+        TextCriteria textCriteria = ProductSearchQueries.textCriteria(filter);
+
+        assertEquals("maple", textCriteria.getCriteriaObject().get("$text", Document.class).getString("$search"));
+    }
+
+    @Test
+    public void testTextCriteria_PlainWordIsNotASubstringMatch() {
+        ProductSearchFilter filter = ProductSearchFilter.of("board", "", null, null, "", "");
+
+        assertEquals("board", ProductSearchQueries.textCriteria(filter).getCriteriaObject()
+                .get("$text", Document.class).getString("$search"));
+        // Only "board*" reaches searchTerms, and then as an anchored prefix; "skateboard" is not matched
+        assertEquals(new Document(), ProductSearchQueries.criteria(filter).getCriteriaObject());
+    }
+
+    @Test
+    public void testCriteria_PrefixWordsMatchSearchTerms() {
+        ProductSearchFilter filter = ProductSearchFilter.of("Skate*", "decks", null, null, "", "");
+
+        Document criteria = ProductSearchQueries.criteria(filter).getCriteriaObject();
+
+        List<?> clauses = criteria.getList("$and", Object.class);
+        assertEquals("^skate", ((Document) clauses.get(0)).get("searchTerms").toString());
+    }
+
+    @Test
+    public void testFacetOperations_EachFacetDropsItsOwnFilter() {
+        ProductSearchFilter filter = ProductSearchFilter.of("skate*", "decks", 10.0, null, "", "Acme");
+
+        List<Document> pipeline = Aggregation.newAggregation(
+                ProductSearchQueries.facetOperations(filter, List.of(0.0, 50.0), 10)).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        String keywordMatch = pipeline.get(0).toJson();
+        assertTrue(keywordMatch.contains("^skate"));
+        assertFalse(keywordMatch.contains("decks"));
+        Document facets = pipeline.get(1).get("$facet", Document.class);
+        String brands = facets.getList("brands", Document.class).get(0).toJson();
+        assertFalse(brands.contains("Acme"));
+        assertTrue(brands.contains("decks"));
+        String categories = facets.getList("categories", Document.class).get(0).toJson();
+        assertFalse(categories.contains("decks"));
+        assertTrue(categories.contains("Acme"));
+        assertFalse(facets.getList("priceRanges", Document.class).get(0).toJson().contains("$gte"));
+    }
+
+    @Test
+    public void testTextCriteria_OnlyPrefixWords() {
+        ProductSearchFilter filter = ProductSearchFilter.of("skate*", "", null, null, "", "");
+
+        assertNull(ProductSearchQueries.textCriteria(filter));
+        assertFalse(ProductSearchQueries.hasTextSearch(filter));
+    }
+
+    @Test
+    public void testWithTieBreaker_FollowsPrimaryDirection() {
+        Sort sort = ProductSearchQueries.withTieBreaker(Sort.by(Sort.Direction.DESC, "price"));
+
+        assertEquals(Sort.Direction.DESC, sort.getOrderFor("_id").getDirection());
+    }
+
+    @Test
+    public void testCursorPage_DropsSortKeyTheClientDidNotAsk() {
+        List<Product> fetched = List.of(product("p1", 10.0), product("p2", 20.0));
+
+        CursorPage<Product> page = ProductSearchQueries.cursorPage(fetched, "price", "asc", ProductProjection.of("name", null), 1);
+
+        assertNotNull(page.getNextCursor());
+        assertEquals("p1", page.getContent().get(0).getName());
+        assertNull(page.getContent().get(0).getPrice());
+    }
+
+    private static Product product(String name, double price) {
+        Product product = new Product();
+        product.setId(name);
+        product.setName(name);
+        product.setPrice(price);
+        return product;
+    }
+}
@@ -1,27 +1,58 @@
 package com.example.productservice.service;
 
 import com.example.productservice.controller.ProductController;
+import com.example.productservice.cache.ProductCache;
+import com.example.productservice.cache.SearchCountCache;
+import com.example.productservice.dto.BatchItem;
+import com.example.productservice.dto.CountMode;
+import com.example.productservice.dto.CursorPage;
+import com.example.productservice.dto.PageResponse;
+import com.example.productservice.dto.ProductEditDTO;
+import com.example.productservice.dto.ProductSearchFilter;
+import com.example.productservice.dto.SearchCursor;
+import com.example.productservice.dto.SearchFacets;
+import com.example.productservice.dto.SearchPage;
+import com.example.productservice.dto.SearchSource;
+import com.example.productservice.dto.StockLevelDTO;
+import com.example.productservice.dto.StockReservationDTO;
+import com.example.productservice.dto.StockReservationResultDTO;
 import com.example.productservice.entity.Category;
 import com.example.productservice.entity.Product;
+import com.example.productservice.entity.StockReservation;
+import com.example.productservice.event.ProductsChangedEvent;
 import com.example.productservice.exception.GeneralInternalException;
 import com.example.productservice.repository.ProductRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +60,7 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -48,6 +80,38 @@ class ProductServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private SearchFacetService searchFacetService;
+
+    @Mock
+    private HotListingService hotListingService;
+
+    @Spy
+    private MongoConcurrencyLimiter mongoLimiter = new MongoConcurrencyLimiter(new SimpleMeterRegistry(), 10, Duration.ofMillis(50));
+
+    static final MongoReadRouting READ_ROUTING = new MongoReadRouting("secondaryPreferred", "secondaryPreferred",
+            Duration.ofSeconds(90));
+
+    @Spy
+    private MongoReadRouting readRouting = READ_ROUTING;
+
+    @Spy
+    private SearchMetrics searchMetrics = new SearchMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private ReadCoalescer readCoalescer = new ReadCoalescer(new SimpleMeterRegistry(), Duration.ofSeconds(5));
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final ProductSearchFilter NO_FILTER = ProductSearchFilter.of(null, "", null, null, "", "");
+
     @Test
     public void testAddProduct_Successful() {
         Product product = createValidProduct();
@@ -69,6 +133,7 @@ class ProductServiceTest {
         assertNotNull(id);
         assertEquals("productId", id);
         verify(productRepository, times(1)).save(product);
+        verify(eventPublisher, times(1)).publishEvent(ProductsChangedEvent.of("productId"));
     }
 
     @Test
@@ -126,6 +191,23 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(product);
     }
 
+    @Test
+    public void testAddProduct_ExistingClientId() {
+        Product product = createValidProduct();
+        product.setId("taken");
+        Category category = new Category();
+        category.setName("testcategory");
+        category.setRequiredAttributes(new HashSet<>(Arrays.asList("brand", "price")));
+        when(categoryService.getCategoryByName(anyString())).thenReturn(category);
+        when(productRepository.save(product)).thenThrow(new OptimisticLockingFailureException("version mismatch"));
+
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.addProduct(product, "TestCategory"));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     public void testGetAllProducts_Successful() {
         List<Product> expectedProducts = Arrays.asList(
@@ -133,9 +215,9 @@ class ProductServiceTest {
                 createValidProduct()
         );
 
-        when(productRepository.findAll()).thenReturn(expectedProducts);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(expectedProducts);
 
-        List<Product> actualProducts = productService.getAllProducts();
+        List<Product> actualProducts = productService.getAllProducts(ProductProjection.FULL);
 
         assertNotNull(actualProducts);
         assertEquals(expectedProducts.size(), actualProducts.size());
@@ -158,17 +240,17 @@ class ProductServiceTest {
         }
 
 
-        verify(productRepository, times(1)).findAll();
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Product.class));
     }
 
     @Test
     public void testGetAllProducts_DataAccessError() {
-        when(productRepository.findAll()).thenThrow(new DataAccessException("Simulated database error") {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenThrow(new DataAccessException("Simulated database error") {
         });
 
-        assertThrows(GeneralInternalException.class, () -> productService.getAllProducts());
+        assertThrows(GeneralInternalException.class, () -> productService.getAllProducts(ProductProjection.FULL));
 
-        verify(productRepository, times(1)).findAll();
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Product.class));
     }
 
     @Test
@@ -207,6 +289,405 @@ class ProductServiceTest {
         verify(productRepository, times(1)).deleteProductById(productId);
     }
 
+    @Test
+    public void testSearchProducts_PartialFirstPageSkipsCount() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(createValidProduct()), new Document()));
+
+        Page<Product> page = productService.searchProducts(NO_FILTER, "name", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.FULL, false,
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(1, page.getTotalElements());
+        verify(searchCountCache, never()).get(any(), any(), any());
+    }
+
+    @Test
+    public void testSearchProducts_FullPageUsesCachedCount() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(createValidProduct(), createValidProduct()), new Document()));
+        when(searchCountCache.get(eq(NO_FILTER), eq(CountMode.EXACT), any())).thenReturn(42L);
+
+        Page<Product> page = productService.searchProducts(NO_FILTER, "name", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.FULL, false,
+                PageRequest.of(0, 2, Sort.by("name")));
+
+        assertEquals(42, page.getTotalElements());
+        verify(mongoTemplate, never()).count(any(), eq(Product.class));
+    }
+
+    @Test
+    public void testSearchProducts_FlagsCappedEstimatedTotal() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(createValidProduct(), createValidProduct()), new Document()));
+        when(searchCountCache.get(eq(NO_FILTER), eq(CountMode.ESTIMATED), any())).thenReturn(2L);
+        when(searchCountCache.isEstimate(NO_FILTER, CountMode.ESTIMATED, 2L)).thenReturn(true);
+
+        Page<Product> page = productService.searchProducts(NO_FILTER, "name", "asc", CountMode.ESTIMATED, SearchSource.LIVE, ProductProjection.FULL, false,
+                PageRequest.of(0, 2, Sort.by("name")));
+        PageResponse<Product> response = PageResponse.of(page);
+
+        assertTrue(SearchPage.isEstimated(page));
+        assertTrue(response.isTotalEstimated());
+        // The total says one page, but a full page under an estimate may have more behind it
+        assertTrue(page.isLast());
+        assertFalse(response.isLast());
+    }
+
+    @Test
+    public void testSearchProducts_SummaryViewProjectsAfterLimit() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        productService.searchProducts(NO_FILTER, "price", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.SUMMARY, false,
+                PageRequest.of(0, 10, Sort.by("price")));
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Product.class), eq(Product.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document project = (Document) pipeline.get(pipeline.size() - 1).get("$project");
+        assertEquals(Set.of("name", "price", "brand", "averageRating", "images"), project.keySet());
+        assertEquals(new Document("$slice", List.of("$images", 1)), project.get("images"));
+    }
+
+    @Test
+    public void testGetProductById_ProjectionKeepsVersionFields() {
+        Product product = createValidProduct();
+        when(mongoTemplate.findOne(any(Query.class), eq(Product.class))).thenReturn(product);
+
+        assertEquals(product, productService.getProductById("p1", ProductProjection.of("name,price", null)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Product.class));
+        assertEquals(Set.of("name", "price", "version", "createdAt", "updatedAt"), query.getValue().getFieldsObject().keySet());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testSearchProducts_IncludesFacets() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(createValidProduct()), new Document()));
+        SearchFacets facets = new SearchFacets(List.of(), List.of(), List.of(), List.of());
+        when(searchFacetService.facets(NO_FILTER)).thenReturn(facets);
+
+        Page<Product> page = productService.searchProducts(NO_FILTER, "name", "asc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.FULL, true,
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(facets, ((SearchPage<Product>) page).getFacets());
+        assertEquals(1, page.getTotalElements());
+    }
+
+    @Test
+    public void testGetProductById_ProjectsCachedDocument() {
+        Product product = createValidProduct();
+        product.setId("p1");
+        product.setVersion(3L);
+        when(productCache.isEnabled()).thenReturn(true);
+        when(productCache.get(eq("p1"), any())).thenReturn(product);
+
+        Product summary = productService.getProductById("p1", ProductProjection.SUMMARY);
+        Integer quantity = productService.getAvailableQuantity("p1");
+
+        assertEquals(product.getName(), summary.getName());
+        assertNull(summary.getAttributes());
+        assertEquals(3L, summary.getVersion());
+        assertEquals(product.getAvailableQuantity(), quantity);
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Product.class));
+        verify(productRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void testGetProductsByIds_KeepsRequestOrderAndMarksMissing() {
+        Product first = createValidProduct();
+        first.setId("p1");
+        Product second = createValidProduct();
+        second.setId("p2");
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(first, second));
+
+        List<BatchItem<Product>> items = productService.getProductsByIds(List.of("p2", "missing", "p1", "p2"), ProductProjection.FULL);
+
+        assertEquals(List.of("p2", "missing", "p1", "p2"), items.stream().map(BatchItem::getId).toList());
+        assertEquals(second, items.get(0).getValue());
+        assertFalse(items.get(1).isFound());
+        assertNull(items.get(1).getValue());
+        assertEquals(first, items.get(2).getValue());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    public void testGetAvailableQuantities_SingleQuery() {
+        Product product = createValidProduct();
+        product.setId("p1");
+        product.setAvailableQuantity(7);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(product));
+
+        List<BatchItem<Integer>> items = productService.getAvailableQuantities(List.of("p1", "p2"));
+
+        assertEquals(7, items.get(0).getValue());
+        assertFalse(items.get(1).isFound());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Product.class));
+        assertEquals(Set.of("availableQuantity"), query.getValue().getFieldsObject().keySet());
+    }
+
+    @Test
+    public void testSearchProducts_RelevanceNeedsKeyword() {
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.searchProducts(NO_FILTER, "relevance", "desc", CountMode.EXACT, SearchSource.LIVE, ProductProjection.FULL, false,
+                        PageRequest.of(0, 10, Sort.by("relevance"))));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+    }
+
+    @Test
+    public void testAddProduct_StoresSearchTerms() {
+        Product product = createValidProduct();
+        Category category = new Category();
+        category.setName("testcategory");
+        category.setRequiredAttributes(Set.of());
+        when(categoryService.getCategoryByName("testcategory")).thenReturn(category);
+        Product savedProduct = new Product();
+        savedProduct.setId("productId");
+        when(productRepository.save(any())).thenReturn(savedProduct);
+
+        productService.addProduct(product, "TestCategory");
+
+        assertEquals(Set.of("validproductname", "validbrand", "testcategory", "tag1", "tag2"), product.getSearchTerms());
+    }
+
+    @Test
+    public void testSearchProductsAfter_ReturnsNextCursorWhenMoreResults() {
+        Product first = createValidProduct();
+        first.setId("65f000000000000000000001");
+        Product second = createValidProduct();
+        second.setId("65f000000000000000000002");
+        second.setName("ZetaProduct");
+        Product extra = createValidProduct();
+        extra.setId("65f000000000000000000003");
+
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(first, second, extra), new Document()));
+
+        CursorPage<Product> page = productService.searchProductsAfter(NO_FILTER, "name", "asc", ProductProjection.FULL, "", 2);
+
+        assertEquals(2, page.getContent().size());
+        SearchCursor next = SearchCursor.decode(page.getNextCursor());
+        assertEquals("name", next.getSortBy());
+        assertEquals("ZetaProduct", next.getLastValue());
+        assertEquals(second.getId(), next.getLastId());
+    }
+
+    @Test
+    public void testSearchProductsAfter_LastPageHasNoCursor() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Product.class), eq(Product.class)))
+                .thenReturn(new AggregationResults<>(List.of(createValidProduct()), new Document()));
+
+        String cursor = new SearchCursor("price", Sort.Direction.DESC, 20.0, "65f000000000000000000001").encode();
+        CursorPage<Product> page = productService.searchProductsAfter(NO_FILTER, "price", "desc", ProductProjection.FULL, cursor, 2);
+
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testSearchProductsAfter_CursorForDifferentSort() {
+        String cursor = new SearchCursor("price", Sort.Direction.ASC, 20.0, "65f000000000000000000001").encode();
+
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.searchProductsAfter(NO_FILTER, "name", "asc", ProductProjection.FULL, cursor, 2));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+    }
+
+    @Test
+    public void testSearchProductsAfter_MalformedCursor() {
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.searchProductsAfter(NO_FILTER, "name", "asc", ProductProjection.FULL, "not-a-cursor", 2));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+    }
+
+    @Test
+    public void testUpdateProduct_SetsOnlyChangedFields() {
+        ProductEditDTO edit = new ProductEditDTO();
+        edit.setPrice(12.5);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        productService.updateProduct("p1", edit);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        assertEquals(new Document("price", 12.5), update.getValue().getUpdateObject().get("$set"));
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    public void testUpdateProduct_RenameSetsSearchTermsInSameWrite() {
+        ProductEditDTO edit = new ProductEditDTO();
+        edit.setName("Street Deck");
+        Product current = new Product();
+        current.setBrand("Acme");
+        current.setCategoryName("skateboards");
+        when(mongoTemplate.findOne(any(Query.class), eq(Product.class))).thenReturn(current);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        productService.updateProduct("p1", edit);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("Street Deck", set.get("name"));
+        current.setName("Street Deck");
+        assertEquals(SearchTokenizer.terms(current), set.get("searchTerms"));
+    }
+
+    @Test
+    public void testUpdateProduct_StaleVersion() {
+        ProductEditDTO edit = new ProductEditDTO();
+        edit.setPrice(12.5);
+        edit.setVersion(3L);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(productRepository.existsById("p1")).thenReturn(true);
+
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.updateProduct("p1", edit));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+    }
+
+    @Test
+    public void testUpdateProduct_NothingToUpdate() {
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.updateProduct("p1", new ProductEditDTO()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Product.class));
+    }
+
+    @Test
+    public void testReserveStock_MergesDuplicateItems() {
+        Product updated = new Product();
+        updated.setAvailableQuantity(5);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(updated);
+
+        StockReservationResultDTO result = productService.reserveStock(List.of(stockItem("p1", 2), stockItem("p1", 3)));
+
+        assertEquals(StockReservation.Status.ACTIVE, result.getStatus());
+        assertEquals(List.of(new StockLevelDTO("p1", 5)), result.getItems());
+        ArgumentCaptor<StockReservation> reservation = ArgumentCaptor.forClass(StockReservation.class);
+        verify(mongoTemplate).insert(reservation.capture());
+        assertEquals(Map.of("p1", 5), reservation.getValue().getQuantities());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Product.class));
+        assertEquals(new Document("availableQuantity", -5), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    public void testReserveStock_InsufficientStockReleasesReservedItems() {
+        Product updated = new Product();
+        updated.setAvailableQuantity(1);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(updated, null, updated);
+        when(productRepository.existsById("p2")).thenReturn(true);
+
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.reserveStock(List.of(stockItem("p1", 2), stockItem("p2", 4))));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), updates.capture(), any(FindAndModifyOptions.class), eq(Product.class));
+        assertEquals(new Document("availableQuantity", 2), updates.getAllValues().get(2).getUpdateObject().get("$inc"));
+        ArgumentCaptor<Update> close = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), close.capture(), eq(StockReservation.class));
+        assertEquals(StockReservation.Status.CANCELLED, close.getValue().getUpdateObject().get("$set", Document.class).get("status"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testReserveStock_ReportsStockThatCannotBePutBack() {
+        Product updated = new Product();
+        updated.setAvailableQuantity(1);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(updated)
+                .thenThrow(new DataAccessException("Primary stepped down") {
+                });
+
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.reserveStock(List.of(stockItem("p1", 2), stockItem("p2", 4))));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getHttpStatus());
+        assertTrue(exception.getMessage().contains("[p1]"));
+        // Left active with only p1 unreleased, so releasing the reservation returns the stranded stock
+        ArgumentCaptor<Update> close = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), close.capture(), eq(StockReservation.class));
+        Document set = close.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(StockReservation.Status.ACTIVE, set.get("status"));
+        assertEquals(Set.of("p2"), set.get("released"));
+    }
+
+    @Test
+    public void testReserveStock_UnknownProduct() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(null);
+        when(productRepository.existsById("missing")).thenReturn(false);
+
+        GeneralInternalException exception = assertThrows(GeneralInternalException.class,
+                () -> productService.reserveStock(List.of(stockItem("missing", 1))));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
+    }
+
+    @Test
+    public void testReleaseStock_PutsBackOnlyUnclaimedItems() {
+        when(mongoTemplate.findById("r1", StockReservation.class)).thenReturn(reservation(StockReservation.Status.ACTIVE));
+        // p1 is claimed by this call, p2 was already put back by an earlier, retried release
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(StockReservation.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null),
+                        UpdateResult.acknowledged(1, 1L, null));
+        Product updated = new Product();
+        updated.setAvailableQuantity(7);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(updated);
+
+        StockReservationResultDTO result = productService.releaseStock("r1");
+
+        assertEquals(List.of(new StockLevelDTO("p1", 7)), result.getItems());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Product.class));
+        assertEquals(new Document("availableQuantity", 2), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    public void testReleaseStock_AlreadyReleasedIsNoOp() {
+        when(mongoTemplate.findById("r1", StockReservation.class)).thenReturn(reservation(StockReservation.Status.RELEASED));
+
+        StockReservationResultDTO result = productService.releaseStock("r1");
+
+        assertEquals(StockReservation.Status.RELEASED, result.getStatus());
+        assertTrue(result.getItems().isEmpty());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private StockReservation reservation(StockReservation.Status status) {
+        StockReservation reservation = new StockReservation();
+        reservation.setId("r1");
+        reservation.setQuantities(new LinkedHashMap<>(Map.of("p1", 2)));
+        reservation.getQuantities().put("p2", 3);
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    private StockReservationDTO.Item stockItem(String productId, int quantity) {
+        StockReservationDTO.Item item = new StockReservationDTO.Item();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
     private Product createValidProduct() {
         Product product = new Product();
         product.setName("ValidProductName");
@@ -0,0 +1,161 @@
+package com.example.productservice.service;
+
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.exception.GeneralInternalException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadCoalescerTest {
+
+    @Test
+    public void testConcurrentIdenticalReadsShareOneLoad() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadCoalescer coalescer = new ReadCoalescer(registry, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("product", "p1", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "loaded";
+            }));
+            waitUntil(() -> coalescer.inFlightCount() == 1);
+            Future<String> follower = executor.submit(() -> coalescer.execute("product", "p1", () -> {
+                loads.incrementAndGet();
+                return "duplicate";
+            }));
+            waitUntil(() -> registry.get("product.read.coalesced").tag("outcome", "collapsed").counter().count() == 1);
+            release.countDown();
+
+            assertEquals("loaded", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("loaded", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+            assertEquals(0, coalescer.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFollowerSeesLeaderException() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadCoalescer coalescer = new ReadCoalescer(registry, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        GeneralInternalException failure = new GeneralInternalException("boom", HttpStatus.NOT_FOUND);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> coalescer.execute("search", "k", () -> {
+                await(release);
+                throw failure;
+            }));
+            waitUntil(() -> coalescer.inFlightCount() == 1);
+            Future<Object> follower = executor.submit(() -> coalescer.execute("search", "k", () -> "unused"));
+            waitUntil(() -> registry.get("product.read.coalesced").tag("outcome", "collapsed").counter().count() == 1);
+            release.countDown();
+
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertSame(failure, leaderError.getCause());
+            GeneralInternalException wrapped = assertInstanceOf(GeneralInternalException.class, followerError.getCause());
+            assertNotSame(failure, wrapped);
+            assertSame(failure, wrapped.getCause());
+            assertEquals("boom", wrapped.getMessage());
+            assertEquals(HttpStatus.NOT_FOUND, wrapped.getHttpStatus());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFollowerExceptionKeepsDataAccessKind() {
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("down");
+
+        RuntimeException wrapped = ReadCoalescer.followerException(failure);
+
+        assertInstanceOf(DataRetrievalFailureException.class, wrapped);
+        assertSame(failure, wrapped.getCause());
+    }
+
+    @Test
+    public void testFollowerGivesUpAfterMaxWait() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadCoalescer coalescer = new ReadCoalescer(registry, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("product", "p1", () -> {
+                await(release);
+                return "slow";
+            }));
+            waitUntil(() -> coalescer.inFlightCount() == 1);
+
+            GeneralInternalException error = assertThrows(GeneralInternalException.class,
+                    () -> coalescer.execute("product", "p1", () -> "unused"));
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getHttpStatus());
+            assertEquals(1, registry.get("product.read.coalesced").tag("outcome", "timed-out").counter().count());
+            release.countDown();
+            assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWriteDropsInFlightReads() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(new SimpleMeterRegistry(), Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> coalescer.execute("product", "p1", () -> {
+                await(release);
+                return "before write";
+            }));
+            waitUntil(() -> coalescer.inFlightCount() == 1);
+
+            coalescer.onProductsChanged(ProductsChangedEvent.of("p1"));
+
+            assertEquals("after write", coalescer.execute("product", "p1", () -> "after write"));
+            release.countDown();
+            assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.SearchExplainReport;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchExplainServiceTest {
+
+    @Test
+    public void testToReport_IndexScanWithFetch() {
+        Document plan = new Document("stage", "LIMIT")
+                .append("inputStage", new Document("stage", "FETCH")
+                        .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "category_price")));
+        Document explain = new Document("queryPlanner", new Document("winningPlan", plan))
+                .append("executionStats", new Document("nReturned", 10).append("totalKeysExamined", 10)
+                        .append("totalDocsExamined", 10).append("executionTimeMillis", 2));
+
+        SearchExplainReport report = SearchExplainService.toReport(explain);
+
+        assertEquals(List.of("LIMIT", "FETCH", "IXSCAN"), report.getPlanStages());
+        assertEquals(List.of("category_price"), report.getIndexesUsed());
+        assertFalse(report.isInMemorySort());
+        assertFalse(report.isCovered());
+        assertEquals(10, report.getDocsExamined());
+    }
+
+    @Test
+    public void testToReport_CollectionScanWithInMemorySort() {
+        Document plan = new Document("queryPlan", new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "COLLSCAN")));
+        Document explain = new Document("queryPlanner", new Document("winningPlan", plan));
+
+        SearchExplainReport report = SearchExplainService.toReport(explain);
+
+        assertTrue(report.isCollectionScan());
+        assertTrue(report.isInMemorySort());
+        assertTrue(report.getIndexesUsed().isEmpty());
+    }
+}
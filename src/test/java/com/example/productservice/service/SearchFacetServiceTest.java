@@ -0,0 +1,46 @@
+package com.example.productservice.service;
+
+import com.example.productservice.cache.SearchFacetCache;
+import com.example.productservice.dto.SearchFacets;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchFacetServiceTest {
+
+    private final SearchFacetService facetService = new SearchFacetService(null,
+            new SearchFacetCache(Duration.ofMinutes(1), 10), null, null, List.of(50.0, 0.0, 100.0), 10);
+
+    @Test
+    public void testToFacets_MapsCountsAndPriceRanges() {
+        Document result = new Document("categories", List.of(new Document("_id", "decks").append("count", 4),
+                new Document("_id", null).append("count", 2)))
+                .append("brands", List.of(new Document("_id", "Acme").append("count", 3)))
+                .append("boardSizes", List.of())
+                .append("priceRanges", List.of(new Document("_id", 0.0).append("count", 1),
+                        new Document("_id", 50.0).append("count", 2),
+                        new Document("_id", "other").append("count", 5)));
+
+        SearchFacets facets = facetService.toFacets(result);
+
+        assertEquals(List.of(new SearchFacets.FacetCount("decks", 4)), facets.getCategories());
+        assertEquals(List.of(new SearchFacets.FacetCount("Acme", 3)), facets.getBrands());
+        assertEquals(List.of(), facets.getBoardSizes());
+        assertEquals(new SearchFacets.PriceBucket(50.0, 100.0, 2), facets.getPriceRanges().get(1));
+        assertEquals(100.0, facets.getPriceRanges().get(2).getMin());
+        assertNull(facets.getPriceRanges().get(2).getMax());
+    }
+
+    @Test
+    public void testToFacets_EmptyResult() {
+        SearchFacets facets = facetService.toFacets(null);
+
+        assertEquals(List.of(), facets.getCategories());
+        assertEquals(List.of(), facets.getPriceRanges());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductSearchFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SearchMetricsTest {
+
+    @Test
+    public void testFilterCombinationNamesOnlyTheFiltersThatAreSet() {
+        assertEquals("none", SearchMetrics.filterCombination(ProductSearchFilter.of(null, "", null, null, "", "")));
+        assertEquals("category+price", SearchMetrics.filterCombination(
+                ProductSearchFilter.of(" ", "boards", null, 50.0, "", "")));
+        assertEquals("keyword+brand", SearchMetrics.filterCombination(
+                ProductSearchFilter.of("deck", "", null, null, "", "acme,zed")));
+    }
+
+    @Test
+    public void testRecordCountsRequestsAndResultSizes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SearchMetrics metrics = new SearchMetrics(registry);
+        ProductSearchFilter filter = ProductSearchFilter.of(null, "boards", null, null, "", "");
+
+        metrics.record(filter, "offset", 10);
+        metrics.record(filter, "offset", 4);
+
+        assertEquals(2.0, registry.get("product.search.requests").tag("filters", "category").counter().count());
+        assertEquals(14.0, registry.get("product.search.results").tag("mode", "offset").summary().totalAmount());
+    }
+}